@@ -3,6 +3,7 @@ plugins {
     alias(libs.plugins.spring.boot)
     alias(libs.plugins.spring.dependency.management)
     id("jacoco")
+    alias(libs.plugins.jmh)
 }
 
 configurations {
@@ -23,6 +24,8 @@ dependencyManagement {
 
 dependencies {
     implementation(libs.spring.boot.starter.web)
+    implementation(libs.spring.boot.starter.actuator)
+    runtimeOnly(libs.micrometer.registry.prometheus)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
     annotationProcessor(libs.spring.boot.configuration.processor)
@@ -31,11 +34,26 @@ dependencies {
 
 // about source and compilation
 java {
-    sourceCompatibility = JavaVersion.VERSION_17
+    // 가상 스레드(spring.threads.virtual.enabled) 사용을 위해 21 이상 필요
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
 }
 
 with(extensions.getByType(JacocoPluginExtension::class.java)) {
-    toolVersion = "0.8.7"
+    toolVersion = "0.8.11"
+}
+
+// benchmark (src/jmh)
+// 실행 : ./gradlew jmh, 일부만 실행 : ./gradlew jmh -Pjmh.includes=PointServiceBenchmark
+// GC 등 프로파일러 : -Pjmh.profilers=gc
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    jvmArgs = listOf("-Xmx4g")
+    findProperty("jmh.includes")?.let { includes = listOf(it.toString()) }
+    findProperty("jmh.profilers")?.let { profilers = listOf(it.toString()) }
 }
 
 // bundling tasks
@@ -49,4 +67,9 @@ tasks.getByName("jar") {
 tasks.test {
     ignoreFailures = true
     useJUnitPlatform()
+    // -Dbenchmark=true 로 실행하면 벤치마크 테스트도 함께 수행
+    systemProperty("benchmark", System.getProperty("benchmark", "false"))
+    if (System.getProperty("benchmark") == "true") {
+        maxHeapSize = "4g"
+    }
 }
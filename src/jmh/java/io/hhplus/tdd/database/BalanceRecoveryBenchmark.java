@@ -0,0 +1,74 @@
+package io.hhplus.tdd.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 재시작 시 잔액 복구 시간 (스냅샷 읽기 + 이후 로그 적용)
+ * - users : 스냅샷에 들어 있는 사용자 수
+ * - walRecords : 스냅샷 이후 로그에 쌓인 변경 수
+ * 한 번 실행하는 시간을 재므로 JVM 이 막 시작한 재시작 상황에 가깝다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BalanceRecoveryBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int users;
+
+    @Param({"0", "1000000"})
+    public int walRecords;
+
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("balance-recovery");
+        BalanceMap balances = new BalanceMap(users);
+        for (long userId = 1; userId <= users; userId++) {
+            balances.put(userId, userId % 100_000L, userId);
+        }
+        BalanceSnapshot.write(directory.resolve(BalanceSnapshot.fileName(1)), balances);
+
+        try (BalanceWal wal = BalanceWal.create(directory.resolve(BalanceWal.fileName(1)))) {
+            for (int i = 0; i < walRecords; i++) {
+                wal.append(i % users + 1, i, i);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public JournaledUserPointTable.Recovery recover() throws IOException {
+        return JournaledUserPointTable.recover(directory, users);
+    }
+}
@@ -0,0 +1,97 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잔액 저장소별 사용자당 메모리와 쓰기 부하 중 GC 비교
+ * - table : 원본과 같은 구조 (Long 키 + Node + UserPoint, throttle 없음)
+ * - heap : PrimitiveUserPointTable, long[] 칸
+ * - off-heap : PrimitiveUserPointTable, direct ByteBuffer 칸
+ * 사용자당 메모리는 heapBytesPerUser / offHeapBytesPerUser 보조 지표로 나온다.
+ * GC 횟수와 시간은 gc 프로파일러로 확인한다.
+ * 실행 : ./gradlew jmh -Pjmh.includes=BalanceStoreBenchmark -Pjmh.profilers=gc
+ * 50M 사용자의 table 은 힙이 6GB 가까이 필요하므로 fork 힙을 늘려서 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx10g", "-XX:MaxDirectMemorySize=4g"})
+public class BalanceStoreBenchmark {
+
+    @Param({"table", "heap", "off-heap"})
+    public String store;
+
+    @Param({"1000000", "50000000"})
+    public int users;
+
+    private UserPointTable userPointTable;
+    private long heapBytes;
+    private long offHeapBytes;
+
+    @Setup
+    public void setUp() {
+        long heapBefore = usedHeap();
+        long offHeapBefore = usedDirect();
+
+        userPointTable = switch (store) {
+            case "table" -> BenchmarkTables.userPointTable(false);
+            case "heap" -> new PrimitiveUserPointTable(new PrimitiveUserPointTableProperties(false, users));
+            case "off-heap" -> new PrimitiveUserPointTable(new PrimitiveUserPointTableProperties(true, users));
+            default -> throw new IllegalArgumentException(store);
+        };
+        for (long userId = 1; userId <= users; userId++) {
+            userPointTable.insertOrUpdate(userId, userId % 100_000L);
+        }
+
+        heapBytes = usedHeap() - heapBefore;
+        offHeapBytes = usedDirect() - offHeapBefore;
+    }
+
+    @Benchmark
+    public UserPoint write(Footprint footprint) {
+        footprint.heapBytesPerUser = heapBytes / users;
+        footprint.offHeapBytesPerUser = offHeapBytes / users;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return userPointTable.insertOrUpdate(random.nextLong(1, users + 1L), random.nextLong(100_000L));
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapBytesPerUser;
+        public long offHeapBytesPerUser;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
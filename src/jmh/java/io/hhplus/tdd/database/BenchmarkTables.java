@@ -0,0 +1,78 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 벤치마크용 Table 생성
+ * Table 클래스는 변경할 수 없으므로 throttle 을 끄는 경우 공개 메서드를 재정의한 하위 클래스를 사용한다.
+ * throttle 이 켜져 있으면 원본 Table 을 그대로 사용한다.
+ */
+public final class BenchmarkTables {
+
+    private BenchmarkTables() {
+    }
+
+    public static UserPointTable userPointTable(boolean throttle) {
+        return throttle ? new UserPointTable() : new UnthrottledUserPointTable();
+    }
+
+    public static PointHistoryTable pointHistoryTable(boolean throttle) {
+        return throttle ? new PointHistoryTable() : new UnthrottledPointHistoryTable();
+    }
+
+    /**
+     * insert 를 거치지 않고 원본 PointHistoryTable 에 내역을 채운다.
+     * insert 는 건마다 최대 300ms 를 기다리므로 수백만 건을 준비할 수 없다.
+     */
+    @SuppressWarnings("unchecked")
+    public static void fill(PointHistoryTable pointHistoryTable, List<PointHistory> rows) {
+        try {
+            Field table = PointHistoryTable.class.getDeclaredField("table");
+            table.setAccessible(true);
+            ((List<PointHistory>) table.get(pointHistoryTable)).addAll(rows);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("PointHistoryTable 을 채울 수 없습니다.", e);
+        }
+    }
+
+    // throttle 없는 UserPointTable, 원본과 달리 여러 스레드에서 함께 사용할 수 있다.
+    static final class UnthrottledUserPointTable extends UserPointTable {
+
+        private final ConcurrentHashMap<Long, UserPoint> table = new ConcurrentHashMap<>();
+
+        @Override
+        public UserPoint selectById(Long id) {
+            return table.getOrDefault(id, UserPoint.empty(id));
+        }
+
+        @Override
+        public UserPoint insertOrUpdate(long id, long amount) {
+            UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+            table.put(id, userPoint);
+            return userPoint;
+        }
+    }
+
+    // throttle 없는 PointHistoryTable, 조회는 IndexedPointHistoryStore 가 담당하므로 id 발급만 한다.
+    static final class UnthrottledPointHistoryTable extends PointHistoryTable {
+
+        private final AtomicLong cursor = new AtomicLong();
+
+        @Override
+        public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+            return new PointHistory(cursor.incrementAndGet(), userId, amount, type, updateMillis);
+        }
+
+        @Override
+        public List<PointHistory> selectAllByUserId(long userId) {
+            return List.of();
+        }
+    }
+}
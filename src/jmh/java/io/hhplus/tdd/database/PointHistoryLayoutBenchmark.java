@@ -0,0 +1,92 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내역 저장 방식별 행당 메모리와 전체 훑기 속도 비교
+ * - objects : PointHistoryTable 과 같은 ArrayList<PointHistory>, 조회는 stream filter
+ * - columns : PointHistoryColumns, 조회는 userId 열만 훑기
+ * 행당 메모리는 bytesPerRow 보조 지표로 나온다.
+ * 실행 : ./gradlew jmh -Pjmh.includes=PointHistoryLayoutBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointHistoryLayoutBenchmark {
+
+    private static final int ROWS_PER_USER = 10;
+
+    @Param({"objects", "columns"})
+    public String layout;
+
+    @Param({"1000000", "10000000"})
+    public int totalRows;
+
+    private List<PointHistory> objects;
+    private PointHistoryColumns columns;
+    private long users;
+    private long bytesPerRow;
+
+    @Setup
+    public void setUp() {
+        users = totalRows / ROWS_PER_USER;
+        long before = usedHeap();
+        if (layout.equals("objects")) {
+            objects = new ArrayList<>();
+            for (int id = 1; id <= totalRows; id++) {
+                objects.add(new PointHistory(id, id % users, 100L, TransactionType.CHARGE, id));
+            }
+        } else {
+            columns = new PointHistoryColumns();
+            for (int id = 1; id <= totalRows; id++) {
+                columns.add(id % users, 100L, TransactionType.CHARGE, id);
+            }
+        }
+        bytesPerRow = (usedHeap() - before) / totalRows;
+    }
+
+    @Benchmark
+    public List<PointHistory> scan(Footprint footprint) {
+        footprint.bytesPerRow = bytesPerRow;
+        long userId = ThreadLocalRandom.current().nextLong(users);
+        if (columns != null) {
+            return columns.scanByUserId(userId);
+        }
+        return objects.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerRow;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
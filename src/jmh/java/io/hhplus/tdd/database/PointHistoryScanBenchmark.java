@@ -0,0 +1,69 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전체 내역 수가 늘어날 때 사용자별 조회 비용 비교
+ * - scan : 원본 PointHistoryTable.selectAllByUserId (전체 목록 stream filter)
+ * - index : PointHistoryIndex.findAllByUserId
+ * 사용자 한 명당 내역 수는 10건으로 고정하고 전체 내역 수만 늘린다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointHistoryScanBenchmark {
+
+    private static final int ROWS_PER_USER = 10;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int totalRows;
+
+    private PointHistoryTable pointHistoryTable;
+    private PointHistoryIndex index;
+    private long users;
+
+    @Setup
+    public void setUp() {
+        users = totalRows / ROWS_PER_USER;
+        List<PointHistory> rows = new ArrayList<>(totalRows);
+        index = new PointHistoryIndex();
+        for (int id = 1; id <= totalRows; id++) {
+            PointHistory pointHistory = new PointHistory(id, id % users, 100L, TransactionType.CHARGE, id);
+            rows.add(pointHistory);
+            index.add(pointHistory);
+        }
+
+        pointHistoryTable = new PointHistoryTable();
+        BenchmarkTables.fill(pointHistoryTable, rows);
+    }
+
+    @Benchmark
+    public List<PointHistory> scan() {
+        return pointHistoryTable.selectAllByUserId(ThreadLocalRandom.current().nextLong(users));
+    }
+
+    @Benchmark
+    public List<PointHistory> index() {
+        return index.findAllByUserId(ThreadLocalRandom.current().nextLong(users));
+    }
+}
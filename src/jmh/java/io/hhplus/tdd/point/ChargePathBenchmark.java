@@ -0,0 +1,103 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.BenchmarkTables;
+import io.hhplus.tdd.database.IndexedPointHistoryStore;
+import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 충전/사용 요청 한 건의 평균 처리 시간
+ * - legacy : 컨트롤러가 getUserPoint 로 잔액을 읽은 뒤 chargePoint(UserPoint, long) 호출 (락 안에서 한 번 더 조회)
+ * - direct : chargePoint(long, long) 로 락 안에서 한 번만 조회
+ * - validation : 충전 경로의 사용자 검증 한 번 (point.validation timer 기록 포함), 단위는 ns
+ * 조회 비용이 드러나도록 기본값은 throttle 이 있는 원본 Table 과 캐시 미사용이다.
+ * 실행 : ./gradlew jmh -Pjmh.includes=ChargePathBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ChargePathBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 1L;
+
+    @Param({"true"})
+    public boolean throttle;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private PointService pointService;
+    private PointMetrics pointMetrics;
+    private PointValidator validator;
+    private UserPoint existing;
+    private PointHistoryWriter pointHistoryWriter;
+    private PointExecutors pointExecutors;
+    private long calls;
+
+    @Setup
+    public void setUp() {
+        pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        validator = new PointValidator();
+        existing = new UserPoint(USER_ID, 50_000L, System.currentTimeMillis());
+        UserPointTable userPointTable = BenchmarkTables.userPointTable(throttle);
+        userPointTable.insertOrUpdate(USER_ID, 50_000L);
+
+        IndexedPointHistoryStore pointHistoryStore = new IndexedPointHistoryStore(BenchmarkTables.pointHistoryTable(throttle));
+        PointSummaries pointSummaries = new PointSummaries(pointHistoryStore);
+        pointHistoryWriter = new PointHistoryWriter(pointHistoryStore, pointSummaries, new PointHistoryWriterProperties(10_000, 100, Duration.ofMillis(50), Duration.ofSeconds(1), Duration.ofSeconds(3)), pointMetrics);
+        pointHistoryWriter.start();
+
+        LockingBalanceEngine balanceEngine = new LockingBalanceEngine(userPointTable, pointHistoryWriter, new UserLockRegistry(UserLockProperties.unbounded()),
+                new UserPointCache(new UserPointCacheProperties(cache, 1000, Duration.ofMinutes(1), 1)), pointMetrics);
+        pointExecutors = new PointExecutors(new PointExecutorProperties(1, false, 1, 1, Duration.ofSeconds(5)));
+        pointService = new PointService(balanceEngine, pointHistoryStore, pointHistoryWriter, pointSummaries, validator, pointExecutors, pointMetrics);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pointHistoryWriter.shutdown();
+        pointExecutors.shutdown();
+    }
+
+    // 충전과 사용을 번갈아 호출해서 잔액을 유지한다.
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public UserPoint legacy() {
+        UserPoint current = pointService.getUserPoint(USER_ID);
+        return (calls++ & 1) == 0
+                ? pointService.chargePoint(current, AMOUNT)
+                : pointService.usePoint(current, AMOUNT);
+    }
+
+    @Benchmark
+    public UserPoint direct() {
+        return (calls++ & 1) == 0
+                ? pointService.chargePoint(USER_ID, AMOUNT)
+                : pointService.usePoint(USER_ID, AMOUNT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void validation() {
+        pointMetrics.recordValidation(PointMetrics.Operation.CHARGE, () -> validator.validateUserExists(existing));
+    }
+}
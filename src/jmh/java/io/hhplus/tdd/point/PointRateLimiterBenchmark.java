@@ -0,0 +1,63 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 사용자별 요청 수 제한 한 번의 비용
+ * - limited=false : 제한에 걸리지 않을 만큼 빠르게 채워지는 경우 (받아들이는 경로, CAS 한 번)
+ * - limited=true : 초당 1개만 채워지는 경우 (대부분 거절되는 경로, 예외 생성 포함)
+ * - users=1 : 모든 스레드가 같은 bucket 을 갱신 (CAS 경합)
+ * - users=1000000 : bucket 조회가 캐시에 맞지 않는 경우
+ * 실행 : ./gradlew jmh -Pjmh.includes=PointRateLimiterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PointRateLimiterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean limited;
+
+    @Param({"1", "1000000"})
+    public int users;
+
+    private PointRateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        PointRateLimitProperties.Limit limit = new PointRateLimitProperties.Limit(20, limited ? 1 : 1_000_000_000);
+        limiter = new PointRateLimiter(new PointRateLimitProperties(true, users * 2, limit, limit), new PointMetrics(new SimpleMeterRegistry()));
+        for (long userId = 0; userId < users; userId++) {
+            limiter.acquire(TransactionType.CHARGE, userId);
+        }
+    }
+
+    @Benchmark
+    public Object acquire() {
+        try {
+            limiter.acquire(TransactionType.CHARGE, ThreadLocalRandom.current().nextLong(users));
+            return null;
+        } catch (RateLimitedException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.BenchmarkTables;
+import io.hhplus.tdd.database.IndexedPointHistoryStore;
+import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PointService 충전/사용 처리량
+ * 매 요청마다 users 명 중 임의의 사용자를 고른다.
+ * - users=1 : 모든 스레드가 같은 사용자를 충전/사용 (사용자 락 경합)
+ * - users=100, 1000000 : 경합이 분산된 경우
+ * engine=lock 과 optimistic 을 비교하면 같은 사용자에 대한 ReentrantLock 대기와 버전 충돌 후 재시도의 비용을 비교할 수 있다.
+ * optimistic 은 충돌 횟수가 maxAttempts 를 넘으면 CONCURRENT_UPDATE 로 실패하며, 실패한 요청도 처리량에 포함된다.
+ * 충전과 사용을 같은 그룹에서 같은 수의 스레드로 돌려서 잔액이 한도/0 에 닿지 않도록 한다.
+ * 컨트롤러와 같이 chargePoint(long, long) / usePoint(long, long) 를 호출한다.
+ *
+ * throttle=true 이면 원본 Table 을 사용하므로 요청당 수백 ms 가 걸린다.
+ * 실행 : ./gradlew jmh -Pjmh.includes=PointServiceBenchmark
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PointServiceBenchmark {
+
+    private static final long START_POINT = 50_000L;
+    private static final long AMOUNT = 1L;
+
+    @Param({"lock", "cas", "group-commit", "sharded", "optimistic"})
+    public String engine;
+
+    @Param({"false"})
+    public boolean throttle;
+
+    @Param({"1", "100", "1000000"})
+    public int users;
+
+    private PointService pointService;
+    private PointHistoryWriter pointHistoryWriter;
+    private PointExecutors pointExecutors;
+    private CasBalanceEngine casBalanceEngine;
+    private ShardedBalanceEngine shardedBalanceEngine;
+
+    // 내역이 계속 쌓이므로 iteration 마다 새로 만든다.
+    @Setup(Level.Iteration)
+    public void setUp() {
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        UserPointTable userPointTable = BenchmarkTables.userPointTable(throttle);
+        IndexedPointHistoryStore pointHistoryStore = new IndexedPointHistoryStore(BenchmarkTables.pointHistoryTable(throttle));
+        PointSummaries pointSummaries = new PointSummaries(pointHistoryStore);
+        pointHistoryWriter = new PointHistoryWriter(pointHistoryStore, pointSummaries, new PointHistoryWriterProperties(10_000, 100, Duration.ofMillis(50), Duration.ofSeconds(1), Duration.ofSeconds(3)), pointMetrics);
+        pointHistoryWriter.start();
+
+        for (long userId = 0; userId < users; userId++) {
+            userPointTable.insertOrUpdate(userId, START_POINT);
+        }
+
+        PointBalanceEngine balanceEngine = switch (engine) {
+            case "lock" -> new LockingBalanceEngine(userPointTable, pointHistoryWriter, new UserLockRegistry(UserLockProperties.unbounded()),
+                    new UserPointCache(new UserPointCacheProperties(true, users * 2, Duration.ofMinutes(1), 16)), pointMetrics);
+            case "group-commit" -> new GroupCommitBalanceEngine(userPointTable, pointHistoryWriter, new UserLockRegistry(UserLockProperties.unbounded()),
+                    new UserPointCache(new UserPointCacheProperties(true, users * 2, Duration.ofMinutes(1), 16)), pointMetrics);
+            case "sharded" -> {
+                shardedBalanceEngine = new ShardedBalanceEngine(userPointTable, pointHistoryWriter, new ShardedBalanceEngineProperties(0, Duration.ofMillis(100), 10_000, Duration.ofSeconds(5), Duration.ofMinutes(1)), pointMetrics);
+                shardedBalanceEngine.start();
+                yield shardedBalanceEngine;
+            }
+            case "cas" -> {
+                casBalanceEngine = new CasBalanceEngine(userPointTable, pointHistoryWriter, new CasBalanceEngineProperties(Duration.ofMillis(100), Duration.ofMinutes(1)), pointMetrics);
+                casBalanceEngine.start();
+                yield casBalanceEngine;
+            }
+            case "optimistic" -> new OptimisticBalanceEngine(new VersionedUserPointTable(userPointTable, pointMetrics), pointHistoryWriter,
+                    new OptimisticBalanceEngineProperties(10, Duration.ofMillis(5), Duration.ofMillis(200)), pointMetrics);
+            default -> throw new IllegalArgumentException(engine);
+        };
+
+        pointExecutors = new PointExecutors(new PointExecutorProperties(1, false, 1, 1, Duration.ofSeconds(5)));
+        pointService = new PointService(balanceEngine, pointHistoryStore, pointHistoryWriter, pointSummaries, new PointValidator(), pointExecutors, pointMetrics);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (casBalanceEngine != null) {
+            casBalanceEngine.shutdown();
+            casBalanceEngine = null;
+        }
+        if (shardedBalanceEngine != null) {
+            shardedBalanceEngine.shutdown();
+            shardedBalanceEngine = null;
+        }
+        pointHistoryWriter.shutdown();
+        pointExecutors.shutdown();
+    }
+
+    @Benchmark
+    @Group("chargeAndUse")
+    @GroupThreads(4)
+    public Object charge() {
+        return charge(ThreadLocalRandom.current().nextLong(users));
+    }
+
+    @Benchmark
+    @Group("chargeAndUse")
+    @GroupThreads(4)
+    public Object use() {
+        return use(ThreadLocalRandom.current().nextLong(users));
+    }
+
+    // 한도/잔액 부족으로 거절되더라도 측정은 계속한다.
+    private Object charge(long userId) {
+        try {
+            return pointService.chargePoint(userId, AMOUNT);
+        } catch (PointException e) {
+            return e;
+        }
+    }
+
+    private Object use(long userId) {
+        try {
+            return pointService.usePoint(userId, AMOUNT);
+        } catch (PointException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.hhplus.tdd.point;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserPoint.charge / use 자체의 비용 (검증 + 객체 생성 + currentTimeMillis)
+ * 서비스 벤치마크에서 락, 저장소 비용을 뺀 하한선으로 사용한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPointBenchmark {
+
+    private final UserPoint current = new UserPoint(1L, 50_000L, System.currentTimeMillis());
+
+    @Benchmark
+    public UserPoint charge() {
+        return UserPoint.charge(current, 100L);
+    }
+
+    @Benchmark
+    public UserPoint use() {
+        return UserPoint.use(current, 100L);
+    }
+}
@@ -1,6 +1,8 @@
 package io.hhplus.tdd;
 
 import io.hhplus.tdd.point.PointException;
+import io.hhplus.tdd.point.RateLimitedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -18,14 +20,33 @@ class ApiControllerAdvice extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handlePointException(PointException e) {
         return switch (e.getCode()) {
             case "USER_NOT_FOUND" -> ResponseEntity.status(404).body(new ErrorResponse(e.getCode(), e.getMessage()));
-            case "NOT_ENOUGH_AMOUNT", "MAX_POINT_LIMIT", "POINT_HISTORY_EMPTY" , "INVALID_AMOUNT" ->
+            case "NOT_ENOUGH_AMOUNT", "MAX_POINT_LIMIT", "POINT_HISTORY_EMPTY" , "INVALID_AMOUNT",
+                 "INVALID_PAGE_LIMIT", "INVALID_PERIOD", "INVALID_BATCH_SIZE", "INVALID_OPERATION",
+                 "INVALID_IDEMPOTENCY_KEY" ->
                     ResponseEntity.status(400).body(new ErrorResponse(e.getCode(), e.getMessage()));
+            case "IDEMPOTENCY_KEY_IN_PROGRESS", "CONCURRENT_UPDATE" -> ResponseEntity.status(409).body(new ErrorResponse(e.getCode(), e.getMessage()));
+            case "IDEMPOTENCY_KEY_REUSED" -> ResponseEntity.status(422).body(new ErrorResponse(e.getCode(), e.getMessage()));
+            case "LOCK_QUEUE_FULL" -> ResponseEntity.status(429).body(new ErrorResponse(e.getCode(), e.getMessage()));
+            case "HISTORY_QUEUE_FULL", "REQUEST_QUEUE_FULL", "REQUEST_TIMEOUT", "LOCK_TIMEOUT" -> ResponseEntity.status(503).body(new ErrorResponse(e.getCode(), e.getMessage()));
             default -> ResponseEntity.status(400).body(new ErrorResponse("POINT_ERROR", e.getMessage()));
         };
     }
 
+    // Retry-After 는 초 단위 정수이므로 올림한다.
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimited(RateLimitedException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponse(e.getCode(), e.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ErrorResponse> handleTypeMismatch(MethodArgumentTypeMismatchException e) {
+        if (!"id".equals(e.getName())) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("INVALID_PARAMETER", e.getName() + " 값의 형식이 올바르지 않습니다."));
+        }
         return ResponseEntity.badRequest()
                 .body(new ErrorResponse("INVALID_ID", "ID는 숫자여야 합니다."));
     }
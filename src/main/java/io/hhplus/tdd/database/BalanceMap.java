@@ -0,0 +1,293 @@
+package io.hhplus.tdd.database;
+
+import java.nio.ByteBuffer;
+
+/**
+ * userId -> (point, updateMillis) 를 기본형 값으로만 저장하는 open addressing 해시 맵.
+ * 한 칸은 userId, point, updateMillis 세 개의 long(24 bytes)이고, 같은 칸의 값은 메모리상에 붙어 있다.
+ * 칸은 힙의 long[] 또는 힙 밖의 direct ByteBuffer 에 둘 수 있다.
+ *
+ * thread-safe 하지 않다. 다만 크기를 늘릴 때는 새 칸을 모두 채운 뒤 한 번에 교체하므로,
+ * 쓰기와 동시에 읽더라도 잘못된 위치를 읽거나 멈추지 않으며 StampedLock 의 낙관적 읽기로 검증할 수 있다.
+ */
+final class BalanceMap {
+
+    // 사용하지 않는 칸, 이 값은 userId 로 쓸 수 없다.
+    static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final boolean offHeap;
+    private Slots slots;
+    private int size;
+    private int threshold;
+
+    BalanceMap(int expectedSize) {
+        this(expectedSize, false);
+    }
+
+    BalanceMap(int expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        this.slots = allocate(capacityFor(expectedSize));
+        this.threshold = (int) (slots.capacity() * LOAD_FACTOR);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // 칸 수, 크기를 늘릴 때마다 두 배가 된다.
+    int capacity() {
+        return slots.capacity();
+    }
+
+    // 잔액 칸이 차지하는 메모리 (bytes)
+    long footprint() {
+        return (long) slots.capacity() * Slots.SLOT_BYTES;
+    }
+
+    /**
+     * 사용자의 위치를 반환한다. 없으면 -1.
+     */
+    int indexOf(long userId) {
+        Slots current = slots;
+        int mask = current.capacity() - 1;
+        int index = hash(userId) & mask;
+        while (true) {
+            long key = current.key(index);
+            if (key == userId) {
+                return index;
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    long pointAt(int index) {
+        return slots.point(index);
+    }
+
+    long millisAt(int index) {
+        return slots.millis(index);
+    }
+
+    void put(long userId, long point, long updateMillis) {
+        if (userId == EMPTY) {
+            throw new IllegalArgumentException("사용할 수 없는 사용자 ID 입니다. userId=" + userId);
+        }
+        if (insert(slots, userId, point, updateMillis) && ++size > threshold) {
+            resize();
+        }
+    }
+
+    /**
+     * 저장된 잔액을 순서와 관계없이 모두 넘겨준다.
+     */
+    void forEach(Visitor visitor) {
+        Slots current = slots;
+        for (int i = 0; i < current.capacity(); i++) {
+            long key = current.key(i);
+            if (key != EMPTY) {
+                visitor.visit(key, current.point(i), current.millis(i));
+            }
+        }
+    }
+
+    /**
+     * from 칸부터 to 칸 전까지의 잔액을 target 에 넣는다.
+     * 칸 위치는 크기를 늘리면 바뀌므로, 나누어 넣는 동안 capacity() 가 바뀌었으면 처음부터 다시 넣어야 한다.
+     */
+    void copyRange(BalanceMap target, int from, int to) {
+        Slots current = slots;
+        for (int i = from; i < to; i++) {
+            long key = current.key(i);
+            if (key != EMPTY) {
+                target.put(key, current.point(i), current.millis(i));
+            }
+        }
+    }
+
+    // 같은 저장 방식(힙 / 힙 밖)에 지금 크기만큼 담을 수 있는 빈 맵
+    BalanceMap emptyCopy() {
+        return new BalanceMap(size, offHeap);
+    }
+
+    private void resize() {
+        Slots current = slots;
+        Slots resized = allocate(current.capacity() * 2);
+        for (int i = 0; i < current.capacity(); i++) {
+            long key = current.key(i);
+            if (key != EMPTY) {
+                insert(resized, key, current.point(i), current.millis(i));
+            }
+        }
+        slots = resized;
+        threshold = (int) (resized.capacity() * LOAD_FACTOR);
+    }
+
+    // 새 사용자를 추가했으면 true
+    private static boolean insert(Slots slots, long userId, long point, long updateMillis) {
+        int mask = slots.capacity() - 1;
+        int index = hash(userId) & mask;
+        long key;
+        while ((key = slots.key(index)) != EMPTY && key != userId) {
+            index = (index + 1) & mask;
+        }
+        // 값을 먼저 쓰고 키를 마지막에 써서, 키가 보이는 칸은 값도 채워져 있도록 한다.
+        slots.set(index, point, updateMillis);
+        if (key == EMPTY) {
+            slots.setKey(index, userId);
+            return true;
+        }
+        return false;
+    }
+
+    private Slots allocate(int capacity) {
+        return offHeap ? new OffHeapSlots(capacity) : new HeapSlots(capacity);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // 연속된 userId 가 연속된 칸에 몰리지 않도록 섞는다.
+    private static int hash(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long userId, long point, long updateMillis);
+    }
+
+    /**
+     * 고정 크기 칸 배열. capacity 는 2의 거듭제곱이다.
+     */
+    private interface Slots {
+
+        int SLOT_BYTES = 24;
+
+        int capacity();
+
+        long key(int index);
+
+        long point(int index);
+
+        long millis(int index);
+
+        void setKey(int index, long userId);
+
+        void set(int index, long point, long updateMillis);
+    }
+
+    // long[] 하나에 [userId, point, updateMillis] 를 칸 순서대로 둔다. 최대 2^29 칸
+    private static final class HeapSlots implements Slots {
+
+        private static final int MAX_CAPACITY = 1 << 29;
+
+        private final long[] values;
+
+        private HeapSlots(int capacity) {
+            if (capacity > MAX_CAPACITY) {
+                throw new IllegalStateException("힙 잔액 맵은 " + MAX_CAPACITY + " 칸을 넘을 수 없습니다. off-heap 을 사용하세요.");
+            }
+            values = new long[capacity * 3];
+            for (int i = 0; i < values.length; i += 3) {
+                values[i] = EMPTY;
+            }
+        }
+
+        @Override
+        public int capacity() {
+            return values.length / 3;
+        }
+
+        @Override
+        public long key(int index) {
+            return values[index * 3];
+        }
+
+        @Override
+        public long point(int index) {
+            return values[index * 3 + 1];
+        }
+
+        @Override
+        public long millis(int index) {
+            return values[index * 3 + 2];
+        }
+
+        @Override
+        public void setKey(int index, long userId) {
+            values[index * 3] = userId;
+        }
+
+        @Override
+        public void set(int index, long point, long updateMillis) {
+            values[index * 3 + 1] = point;
+            values[index * 3 + 2] = updateMillis;
+        }
+    }
+
+    // direct ByteBuffer 는 하나에 2GB 까지이므로 2^16 칸(1.5MB) 단위로 나누어 할당한다.
+    private static final class OffHeapSlots implements Slots {
+
+        private static final int CHUNK_SHIFT = 16;
+        private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+        private final ByteBuffer[] chunks;
+        private final int capacity;
+
+        private OffHeapSlots(int capacity) {
+            this.capacity = capacity;
+            int chunkSlots = Math.min(capacity, 1 << CHUNK_SHIFT);
+            chunks = new ByteBuffer[capacity / chunkSlots];
+            for (int i = 0; i < chunks.length; i++) {
+                ByteBuffer chunk = ByteBuffer.allocateDirect(chunkSlots * SLOT_BYTES);
+                for (int offset = 0; offset < chunk.capacity(); offset += SLOT_BYTES) {
+                    chunk.putLong(offset, EMPTY);
+                }
+                chunks[i] = chunk;
+            }
+        }
+
+        @Override
+        public int capacity() {
+            return capacity;
+        }
+
+        @Override
+        public long key(int index) {
+            return chunks[index >>> CHUNK_SHIFT].getLong((index & CHUNK_MASK) * SLOT_BYTES);
+        }
+
+        @Override
+        public long point(int index) {
+            return chunks[index >>> CHUNK_SHIFT].getLong((index & CHUNK_MASK) * SLOT_BYTES + 8);
+        }
+
+        @Override
+        public long millis(int index) {
+            return chunks[index >>> CHUNK_SHIFT].getLong((index & CHUNK_MASK) * SLOT_BYTES + 16);
+        }
+
+        @Override
+        public void setKey(int index, long userId) {
+            chunks[index >>> CHUNK_SHIFT].putLong((index & CHUNK_MASK) * SLOT_BYTES, userId);
+        }
+
+        @Override
+        public void set(int index, long point, long updateMillis) {
+            ByteBuffer chunk = chunks[index >>> CHUNK_SHIFT];
+            int offset = (index & CHUNK_MASK) * SLOT_BYTES;
+            chunk.putLong(offset + 8, point);
+            chunk.putLong(offset + 16, updateMillis);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.hhplus.tdd.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * 전체 잔액 스냅샷 파일 읽기/쓰기.
+ * 파일 : count(8) + 레코드[userId(8) point(8) updateMillis(8)] * count + crc(4)
+ * 임시 파일에 다 쓴 뒤 이름을 바꾸므로 쓰다가 중단된 스냅샷은 남지 않는다.
+ */
+final class BalanceSnapshot {
+
+    private static final int RECORD_SIZE = 24;
+    private static final int BUFFER_SIZE = RECORD_SIZE * 64 * 1024;
+
+    private BalanceSnapshot() {
+    }
+
+    // sequence : 이 스냅샷 이후의 변경이 기록된 첫 번째 로그 파일 번호
+    static String fileName(long sequence) {
+        return String.format("snapshot-%020d.snap", sequence);
+    }
+
+    static void write(Path path, BalanceMap balances) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putLong(balances.size());
+            try {
+                balances.forEach((userId, point, updateMillis) -> {
+                    if (buffer.remaining() < RECORD_SIZE) {
+                        flush(channel, buffer, crc);
+                    }
+                    buffer.putLong(userId).putLong(point).putLong(updateMillis);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            flush(channel, buffer, crc);
+            buffer.putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 스냅샷의 잔액을 모두 맵에 넣고 읽은 잔액 수를 반환한다.
+     * crc 가 맞지 않으면 이후 로그만으로는 잔액을 복구할 수 없으므로 예외를 던진다.
+     */
+    static long read(Path path, BalanceMap balances) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            readFully(channel, buffer, Long.BYTES);
+            long count = buffer.getLong(0);
+            if (count < 0 || channel.size() != Long.BYTES + count * RECORD_SIZE + Integer.BYTES) {
+                throw new IllegalStateException("잔액 스냅샷 크기가 맞지 않습니다. file=" + path);
+            }
+            crc.update(buffer.flip());
+
+            long remaining = count;
+            while (remaining > 0) {
+                int records = (int) Math.min(remaining, BUFFER_SIZE / RECORD_SIZE);
+                readFully(channel, buffer, records * RECORD_SIZE);
+                crc.update(buffer.duplicate().flip());
+                for (int i = 0; i < records; i++) {
+                    int offset = i * RECORD_SIZE;
+                    balances.put(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16));
+                }
+                remaining -= records;
+            }
+
+            readFully(channel, buffer, Integer.BYTES);
+            if ((int) crc.getValue() != buffer.getInt(0)) {
+                throw new IllegalStateException("잔액 스냅샷이 손상되었습니다. file=" + path);
+            }
+            return count;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IllegalStateException("잔액 스냅샷이 잘렸습니다.");
+            }
+        }
+    }
+}
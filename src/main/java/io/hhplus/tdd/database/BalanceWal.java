@@ -0,0 +1,106 @@
+package io.hhplus.tdd.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * 잔액 변경 로그 파일 하나. 변경을 고정 길이 레코드로 순서대로 덧붙인다.
+ * 레코드 : userId(8) point(8) updateMillis(8) crc(4) = 28 bytes
+ * 쓰기와 디스크 반영은 한 번에 한 스레드만 호출해야 한다.
+ */
+final class BalanceWal implements Closeable {
+
+    static final int RECORD_SIZE = 28;
+    private static final int CRC_LENGTH = 24;
+    private static final int READ_BUFFER_SIZE = RECORD_SIZE * 32 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocateDirect(RECORD_SIZE);
+    private final CRC32C crc = new CRC32C();
+    private long written;
+
+    private BalanceWal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    static String fileName(long sequence) {
+        return String.format("wal-%020d.log", sequence);
+    }
+
+    /**
+     * 새 로그 파일을 만든다. 같은 이름의 파일이 있으면 실패한다.
+     */
+    static BalanceWal create(Path path) throws IOException {
+        return new BalanceWal(path, FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * 로그 파일의 유효한 레코드를 앞에서부터 넘겨주고 읽은 레코드 수를 반환한다.
+     * crc 가 맞지 않거나 잘린 레코드(쓰다가 중단된 레코드)에서 멈춘다.
+     */
+    static long replay(Path path, BalanceMap.Visitor visitor) throws IOException {
+        long count = 0;
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                if (buffer.remaining() < RECORD_SIZE && channel.position() == channel.size()) {
+                    return count;
+                }
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    int offset = buffer.position();
+                    crc.reset();
+                    crc.update(buffer.slice(offset, CRC_LENGTH));
+                    if ((int) crc.getValue() != buffer.getInt(offset + CRC_LENGTH)) {
+                        return count;
+                    }
+                    visitor.visit(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16));
+                    buffer.position(offset + RECORD_SIZE);
+                    count++;
+                }
+                buffer.compact();
+            }
+        }
+        return count;
+    }
+
+    void append(long userId, long point, long updateMillis) throws IOException {
+        record.clear();
+        record.putLong(userId).putLong(point).putLong(updateMillis);
+        crc.reset();
+        crc.update(record.flip());
+        record.limit(RECORD_SIZE).putInt(CRC_LENGTH, (int) crc.getValue());
+        record.position(0);
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        written += RECORD_SIZE;
+    }
+
+    // 지금까지 쓴 위치 (bytes)
+    long written() {
+        return written;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+}
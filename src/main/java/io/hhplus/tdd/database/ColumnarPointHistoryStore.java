@@ -0,0 +1,151 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 내역을 열 단위 기본형 배열(PointHistoryColumns)에 저장하는 저장소.
+ * 내역 한 건이 객체 대신 25 bytes 행 하나와 사용자별 인덱스의 행 번호(4 bytes)만 차지한다.
+ * 사용자별 조회는 내역을 미리 만들지 않고, 조회 시점까지의 행을 가리키는 읽기 전용 목록을 돌려준다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.history.store.type", havingValue = "columnar")
+public class ColumnarPointHistoryStore implements PointHistoryStore {
+
+    private final PointHistoryColumns columns = new PointHistoryColumns();
+    private final ConcurrentHashMap<Long, UserRows> rows = new ConcurrentHashMap<>();
+    // 열과 인덱스 모두 쓰기 스레드가 하나여야 하므로 직렬화한다.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        writeLock.lock();
+        try {
+            int row = columns.add(userId, amount, type, updateMillis);
+            rows.computeIfAbsent(userId, id -> new UserRows()).append(row);
+            return new PointHistory(PointHistoryColumns.idOf(row), userId, amount, type, updateMillis);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 조회 시점까지의 내역을 가리키는 읽기 전용 목록. 각 내역은 꺼낼 때 열에서 읽어서 만든다.
+     */
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        UserRows userRows = rows.get(userId);
+        if (userRows == null) {
+            return List.of();
+        }
+        // size 를 먼저 읽어야 그만큼의 행이 담긴 청크가 보인다.
+        int count = userRows.size;
+        return new RowView(columns, userRows.chunks, count);
+    }
+
+    @Override
+    public Stream<Long> selectUserIds() {
+        return rows.keySet().stream();
+    }
+
+    @Override
+    public List<PointHistory> selectByUserIdAfter(long userId, long afterId, int maxRows, Predicate<PointHistory> filter) {
+        UserRows userRows = rows.get(userId);
+        if (userRows == null) {
+            return List.of();
+        }
+
+        int count = userRows.size;
+        int[][] current = userRows.chunks;
+
+        // afterId 보다 큰 첫 번째 위치, id 가 행 번호로 정해지므로 열을 읽지 않고 찾는다.
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (PointHistoryColumns.idOf(UserRows.get(current, mid)) <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        List<PointHistory> result = new ArrayList<>(Math.min(maxRows, count - low));
+        for (int i = low; i < count && result.size() < maxRows; i++) {
+            PointHistory pointHistory = columns.get(UserRows.get(current, i));
+            if (filter.test(pointHistory)) {
+                result.add(pointHistory);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 한 사용자의 행 번호 목록. PointHistoryIndex 와 같이 청크 단위로 늘리고 size 를 마지막에 volatile 로 기록한다.
+     */
+    private static final class UserRows {
+        private static final int CHUNK_SHIFT = 4;
+        private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        private volatile int[][] chunks = new int[1][];
+        private volatile int size;
+
+        private void append(int row) {
+            int index = size;
+            int chunk = index >>> CHUNK_SHIFT;
+            int[][] current = chunks;
+            if (chunk == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            if (current[chunk] == null) {
+                current[chunk] = new int[CHUNK_SIZE];
+            }
+            current[chunk][index & CHUNK_MASK] = row;
+            chunks = current;
+            size = index + 1;
+        }
+
+        private static int get(int[][] current, int index) {
+            return current[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+    }
+
+    private static final class RowView extends AbstractList<PointHistory> implements RandomAccess {
+
+        private final PointHistoryColumns columns;
+        private final int[][] chunks;
+        private final int size;
+
+        private RowView(PointHistoryColumns columns, int[][] chunks, int size) {
+            this.columns = columns;
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        public PointHistory get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return columns.get(UserRows.get(chunks, index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
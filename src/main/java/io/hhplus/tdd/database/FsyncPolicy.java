@@ -0,0 +1,11 @@
+package io.hhplus.tdd.database;
+
+/**
+ * 파일 기반 저장소의 디스크 반영(fsync) 시점
+ * - WRITE : 한 건을 쓸 때마다
+ * - BATCH : 묶음 단위로. 내역은 PointHistoryWriter 의 배치마다, 잔액은 동시에 들어온 변경을 모아서 한 번에
+ * - PERIODIC : 일정 주기마다, 장애 시 마지막 주기 이후의 변경은 잃을 수 있다.
+ */
+public enum FsyncPolicy {
+    WRITE, BATCH, PERIODIC
+}
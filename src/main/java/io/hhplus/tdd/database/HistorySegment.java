@@ -0,0 +1,132 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * 고정 길이 내역 레코드를 순서대로 덧붙이는 세그먼트 파일 하나.
+ * 레코드 : id(8) userId(8) amount(8) updateMillis(8) type(1) 패딩(3) crc(4) = 40 bytes
+ * 쓰기는 한 번에 한 스레드만 호출해야 하고, 이미 쓴 위치의 읽기는 동시에 호출할 수 있다.
+ */
+final class HistorySegment implements Closeable {
+
+    static final int RECORD_SIZE = 40;
+    private static final int TYPE_OFFSET = 32;
+    private static final int CRC_OFFSET = 36;
+    // crc 는 패딩을 제외한 id ~ type 까지 계산한다.
+    private static final int CRC_LENGTH = 33;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writeOffset;
+    private int syncedOffset;
+
+    private HistorySegment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static String fileName(long firstId) {
+        return String.format("segment-%020d.log", firstId);
+    }
+
+    /**
+     * 세그먼트 파일을 연다. 이미 있는 파일은 파일 크기 그대로, 새 파일은 segmentSize 로 매핑한다.
+     */
+    static HistorySegment open(Path path, long segmentSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size() > 0 ? channel.size() : segmentSize;
+        long mappedSize = Math.min(size, Integer.MAX_VALUE) / RECORD_SIZE * RECORD_SIZE;
+        if (mappedSize == 0) {
+            channel.close();
+            throw new IllegalArgumentException("세그먼트 크기는 " + RECORD_SIZE + " bytes 이상이어야 합니다.");
+        }
+        return new HistorySegment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+    }
+
+    /**
+     * 앞에서부터 유효한 레코드를 읽어서 위치를 넘겨주고, 마지막 유효 레코드의 id 를 반환한다.
+     * id 가 lastId 다음 번호가 아니거나 crc 가 맞지 않는 레코드(쓰다가 중단된 레코드)에서 멈추고 그 위치부터 이어서 쓴다.
+     */
+    long replay(long lastId, IntConsumer consumer) {
+        int offset = 0;
+        while (offset + RECORD_SIZE <= buffer.capacity()) {
+            if (buffer.getLong(offset) != lastId + 1 || crc(offset) != buffer.getInt(offset + CRC_OFFSET)) {
+                break;
+            }
+            lastId++;
+            consumer.accept(offset);
+            offset += RECORD_SIZE;
+        }
+        writeOffset = offset;
+        syncedOffset = offset;
+        return lastId;
+    }
+
+    boolean hasRoom() {
+        return writeOffset + RECORD_SIZE <= buffer.capacity();
+    }
+
+    // 레코드를 쓰고 위치를 반환한다.
+    int append(PointHistory pointHistory) {
+        int offset = writeOffset;
+        buffer.putLong(offset, pointHistory.id());
+        buffer.putLong(offset + 8, pointHistory.userId());
+        buffer.putLong(offset + 16, pointHistory.amount());
+        buffer.putLong(offset + 24, pointHistory.updateMillis());
+        buffer.put(offset + TYPE_OFFSET, (byte) pointHistory.type().ordinal());
+        buffer.putInt(offset + CRC_OFFSET, crc(offset));
+        writeOffset = offset + RECORD_SIZE;
+        return offset;
+    }
+
+    long readId(int offset) {
+        return buffer.getLong(offset);
+    }
+
+    PointHistory read(int offset) {
+        return new PointHistory(
+                buffer.getLong(offset),
+                buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16),
+                TYPES[buffer.get(offset + TYPE_OFFSET)],
+                buffer.getLong(offset + 24)
+        );
+    }
+
+    // 마지막 반영 이후에 쓴 범위만 디스크에 반영한다.
+    void force() {
+        if (writeOffset > syncedOffset) {
+            buffer.force(syncedOffset, writeOffset - syncedOffset);
+            syncedOffset = writeOffset;
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private int crc(int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CRC_LENGTH));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,55 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * PointHistoryTable 에 내역을 저장하면서 사용자별 인덱스를 함께 유지한다.
+ * PointHistoryTable.selectAllByUserId 는 전체 내역을 훑기 때문에, 조회는 인덱스에서 처리한다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.history.store.type", havingValue = "table", matchIfMissing = true)
+@RequiredArgsConstructor
+public class IndexedPointHistoryStore implements PointHistoryStore {
+
+    private final PointHistoryTable pointHistoryTable;
+    private final PointHistoryIndex index = new PointHistoryIndex();
+    // synchronized 안에서 테이블의 sleep 을 만나면 가상 스레드가 캐리어 스레드를 점유하므로 ReentrantLock 사용
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // 테이블이 thread-safe 하지 않고 인덱스도 쓰기 스레드가 하나여야 하므로 직렬화한다.
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        writeLock.lock();
+        try {
+            PointHistory pointHistory = pointHistoryTable.insert(userId, amount, type, updateMillis);
+            index.add(pointHistory);
+            return pointHistory;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return index.findAllByUserId(userId);
+    }
+
+    @Override
+    public Stream<Long> selectUserIds() {
+        return index.userIds();
+    }
+
+    @Override
+    public List<PointHistory> selectByUserIdAfter(long userId, long afterId, int maxRows, Predicate<PointHistory> filter) {
+        return index.findByUserIdAfter(userId, afterId, maxRows, filter);
+    }
+}
@@ -0,0 +1,337 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 잔액을 변경 로그(WAL)와 주기적인 스냅샷으로 디스크에 남기는 UserPointTable.
+ * insertOrUpdate 는 변경을 로그에 쓰고 fsync 정책에 따라 디스크에 반영한 뒤에 반환하므로,
+ * 반환된 잔액은 재시작 후에도 남는다. 시작할 때 마지막 스냅샷을 읽고 그 이후의 로그를 다시 적용해서 복구한다.
+ * 잔액은 객체 대신 기본형 배열 맵(BalanceMap)에 두어 사용자 수천만 명도 빠르게 복구한다.
+ *
+ * UserPointTable 은 변경하지 않고 상속해서 공개된 API 를 그대로 제공한다.
+ * CAS, 샤드 엔진은 잔액을 메모리에서 먼저 확정하고 테이블에는 나중에 반영하므로,
+ * 응답 전에 로그가 남는 것은 테이블에 바로 쓰는 lock, group-commit 엔진이다.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "point.balance.store.type", havingValue = "journal")
+public class JournaledUserPointTable extends UserPointTable {
+
+    private static final Logger log = LoggerFactory.getLogger(JournaledUserPointTable.class);
+    private static final Pattern WAL_FILE = Pattern.compile("wal-(\\d{20})\\.log");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d{20})\\.snap");
+    // 스냅샷 복사 때 읽기 락 한 번에 복사하는 칸 수
+    private static final int COPY_CHUNK = 1 << 16;
+
+    private final JournaledUserPointTableProperties properties;
+    private final Path directory;
+    // 잔액 맵 보호, 쓰기는 appendLock 을 잡은 상태에서만 한다.
+    private final StampedLock mapLock = new StampedLock();
+    // 로그 쓰기 순서 보장
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // 디스크 반영과 로그 파일 교체, 잡는 순서는 syncLock -> appendLock
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private BalanceMap balances;
+    private BalanceWal wal;
+    private long walSequence;
+    // 지금까지 로그에 쓴 변경 수, 디스크에 반영된 변경 수
+    private long appended;
+    private volatile long synced;
+
+    private volatile Thread maintainer;
+    private volatile boolean running;
+
+    public JournaledUserPointTable(JournaledUserPointTableProperties properties) {
+        this.properties = properties;
+        this.directory = Paths.get(properties.directory());
+    }
+
+    @PostConstruct
+    public void open() {
+        try {
+            Recovery recovery = recover(directory, properties.expectedUsers());
+            balances = recovery.balances();
+            walSequence = recovery.nextSequence();
+            wal = BalanceWal.create(directory.resolve(BalanceWal.fileName(walSequence)));
+            log.info("point balance recovered. users={}, snapshotUsers={}, walRecords={}, elapsed={}ms",
+                    balances.size(), recovery.snapshotUsers(), recovery.walRecords(), recovery.elapsedMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("잔액 로그를 열 수 없습니다. directory=" + directory, e);
+        }
+
+        running = true;
+        Thread thread = new Thread(this::runMaintainer, "point-balance-journal");
+        thread.setDaemon(true);
+        maintainer = thread;
+        thread.start();
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        long stamp = mapLock.readLock();
+        try {
+            int index = balances.indexOf(id);
+            return index < 0 ? UserPoint.empty(id) : new UserPoint(id, balances.pointAt(index), balances.millisAt(index));
+        } finally {
+            mapLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+        long sequence;
+        appendLock.lock();
+        try {
+            wal.append(id, amount, userPoint.updateMillis());
+            if (properties.fsync() == FsyncPolicy.WRITE) {
+                wal.force();
+            }
+            sequence = ++appended;
+
+            long stamp = mapLock.writeLock();
+            try {
+                balances.put(id, amount, userPoint.updateMillis());
+            } finally {
+                mapLock.unlockWrite(stamp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("잔액 로그를 쓸 수 없습니다. userId=" + id, e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        if (properties.fsync() == FsyncPolicy.BATCH) {
+            syncTo(sequence);
+        }
+        return userPoint;
+    }
+
+    /**
+     * 전체 잔액 스냅샷을 만든다.
+     * appendLock 안에서는 새 로그 파일로 넘어가기만 하고, 잔액 복사와 파일 쓰기는 락 밖에서 한 뒤 이전 로그와 스냅샷을 삭제한다.
+     * 복사하는 동안 바뀐 잔액은 새 로그에도 남으므로, 복구할 때 스냅샷 번호부터의 로그를 다시 적용하면 최종 잔액이 된다.
+     */
+    public void snapshot() {
+        long sequence;
+        syncLock.lock();
+        try {
+            appendLock.lock();
+            try {
+                wal.close();
+                synced = appended;
+                sequence = walSequence + 1;
+                wal = BalanceWal.create(directory.resolve(BalanceWal.fileName(sequence)));
+                walSequence = sequence;
+            } finally {
+                appendLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("잔액 로그를 교체할 수 없습니다. directory=" + directory, e);
+        } finally {
+            syncLock.unlock();
+        }
+
+        BalanceMap copy = copyBalances();
+        try {
+            BalanceSnapshot.write(directory.resolve(BalanceSnapshot.fileName(sequence)), copy);
+            deleteBefore(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("잔액 스냅샷을 쓸 수 없습니다. directory=" + directory, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        Thread thread = maintainer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 다음 시작 때 로그를 다시 적용하지 않도록 마지막 스냅샷을 남긴다.
+        snapshot();
+        try {
+            wal.close();
+        } catch (IOException e) {
+            log.error("point balance journal close failed", e);
+        }
+    }
+
+    /**
+     * 마지막 스냅샷과 그 이후의 로그로 잔액을 복구한다.
+     * 로그 파일은 번호 순서로 적용하며, 각 파일은 쓰다가 중단된 레코드에서 멈춘다.
+     * 중단된 레코드는 그 파일의 끝에만 있을 수 있고 재시작 후에는 항상 새 로그 파일에 쓰므로, 다음 파일은 이어서 적용한다.
+     */
+    static Recovery recover(Path directory, int expectedUsers) throws IOException {
+        long startedAt = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.sorted().toList();
+        }
+
+        long snapshotSequence = 0;
+        long lastSequence = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            Matcher snapshot = SNAPSHOT_FILE.matcher(name);
+            Matcher wal = WAL_FILE.matcher(name);
+            if (snapshot.matches()) {
+                snapshotSequence = Math.max(snapshotSequence, Long.parseLong(snapshot.group(1)));
+            } else if (wal.matches()) {
+                lastSequence = Math.max(lastSequence, Long.parseLong(wal.group(1)));
+            }
+        }
+
+        BalanceMap balances = new BalanceMap(expectedUsers);
+        long snapshotUsers = 0;
+        if (snapshotSequence > 0) {
+            snapshotUsers = BalanceSnapshot.read(directory.resolve(BalanceSnapshot.fileName(snapshotSequence)), balances);
+        }
+
+        long walRecords = 0;
+        for (Path file : files) {
+            Matcher wal = WAL_FILE.matcher(file.getFileName().toString());
+            if (wal.matches() && Long.parseLong(wal.group(1)) >= snapshotSequence) {
+                walRecords += BalanceWal.replay(file, balances::put);
+            }
+        }
+
+        return new Recovery(balances, Math.max(snapshotSequence, lastSequence) + 1, snapshotUsers, walRecords,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    // 읽기 락을 칸 묶음마다 잡았다 놓으면서 복사해서, 복사하는 동안에도 쓰기가 오래 막히지 않도록 한다.
+    // 중간에 크기가 늘면 칸 위치가 바뀌므로 처음부터 다시 복사한다. 이미 넣은 잔액은 같은 값이나 더 최근 값으로 덮인다.
+    private BalanceMap copyBalances() {
+        BalanceMap copy;
+        long stamp = mapLock.readLock();
+        try {
+            copy = balances.emptyCopy();
+        } finally {
+            mapLock.unlockRead(stamp);
+        }
+
+        int capacity = -1;
+        int from = 0;
+        while (true) {
+            stamp = mapLock.readLock();
+            try {
+                if (balances.capacity() != capacity) {
+                    capacity = balances.capacity();
+                    from = 0;
+                }
+                if (from >= capacity) {
+                    return copy;
+                }
+                int to = Math.min(capacity, from + COPY_CHUNK);
+                balances.copyRange(copy, from, to);
+                from = to;
+            } finally {
+                mapLock.unlockRead(stamp);
+            }
+        }
+    }
+
+    // 함께 들어온 변경이 한 번의 fsync 로 반영되도록, 이미 다른 스레드가 반영했으면 기다리기만 한다.
+    private void syncTo(long sequence) {
+        if (synced >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= sequence) {
+                return;
+            }
+            long target;
+            appendLock.lock();
+            try {
+                target = appended;
+            } finally {
+                appendLock.unlock();
+            }
+            wal.force();
+            synced = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("잔액 로그를 디스크에 반영할 수 없습니다.", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void runMaintainer() {
+        boolean periodic = properties.fsync() == FsyncPolicy.PERIODIC;
+        long snapshotInterval = properties.snapshotInterval().toNanos();
+        long tick = periodic ? Math.min(properties.fsyncInterval().toNanos(), snapshotInterval) : snapshotInterval;
+        long nextSnapshot = System.nanoTime() + snapshotInterval;
+
+        while (running) {
+            LockSupport.parkNanos(this, tick);
+            if (!running) {
+                return;
+            }
+            try {
+                if (periodic) {
+                    syncTo(Long.MAX_VALUE);
+                }
+                if (System.nanoTime() - nextSnapshot >= 0) {
+                    snapshot();
+                    nextSnapshot = System.nanoTime() + snapshotInterval;
+                }
+            } catch (RuntimeException e) {
+                log.error("point balance journal maintenance failed", e);
+            }
+        }
+    }
+
+    private void deleteBefore(long sequence) throws IOException {
+        try (Stream<Path> list = Files.list(directory)) {
+            for (Path file : list.toList()) {
+                String name = file.getFileName().toString();
+                Matcher snapshot = SNAPSHOT_FILE.matcher(name);
+                Matcher wal = WAL_FILE.matcher(name);
+                if ((snapshot.matches() && Long.parseLong(snapshot.group(1)) < sequence)
+                        || (wal.matches() && Long.parseLong(wal.group(1)) < sequence)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    record Recovery(
+            BalanceMap balances,
+            long nextSequence,
+            long snapshotUsers,
+            long walRecords,
+            long elapsedMillis
+    ) {
+    }
+}
@@ -0,0 +1,24 @@
+package io.hhplus.tdd.database;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 잔액 변경 로그(WAL) + 스냅샷 저장소 설정
+ * - directory : 로그와 스냅샷 파일을 저장할 디렉터리
+ * - fsync : 디스크 반영 시점 (write | batch | periodic)
+ * - fsyncInterval : periodic 일 때 디스크 반영 주기
+ * - snapshotInterval : 전체 잔액 스냅샷을 만드는 주기, 스냅샷 이전의 로그는 삭제한다.
+ * - expectedUsers : 잔액 맵의 초기 크기를 정하기 위한 예상 사용자 수
+ */
+@ConfigurationProperties("point.balance.store.journal")
+public record JournaledUserPointTableProperties(
+        @DefaultValue("data/balance") String directory,
+        @DefaultValue("batch") FsyncPolicy fsync,
+        @DefaultValue("1s") Duration fsyncInterval,
+        @DefaultValue("1m") Duration snapshotInterval,
+        @DefaultValue("1000000") int expectedUsers
+) {
+}
@@ -0,0 +1,261 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 내역을 메모리 맵 세그먼트 파일에 고정 길이 레코드로 덧붙여 저장하는 저장소.
+ * 프로세스가 종료되어도 내역이 남고, 시작할 때 세그먼트를 다시 읽어서 사용자별 인덱스를 만든다.
+ * 인덱스에는 내역 객체 대신 파일상의 위치(long)만 두고, 조회할 때 파일에서 읽어서 만든다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.history.store.type", havingValue = "mapped")
+public class MappedPointHistoryStore implements PointHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedPointHistoryStore.class);
+
+    private final MappedPointHistoryStoreProperties properties;
+    private final List<HistorySegment> segments = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<Long, UserPositions> positions = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private HistorySegment active;
+    private long lastId;
+
+    private volatile Thread syncer;
+    private volatile boolean running;
+
+    public MappedPointHistoryStore(MappedPointHistoryStoreProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void open() {
+        Path directory = Paths.get(properties.directory());
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.filter(path -> path.getFileName().toString().matches("segment-\\d{20}\\.log"))
+                        .sorted()
+                        .toList();
+            }
+
+            // 세그먼트 이름 순서 = id 순서
+            for (Path file : files) {
+                HistorySegment segment = HistorySegment.open(file, properties.segmentSize().toBytes());
+                int segmentIndex = segments.size();
+                segments.add(segment);
+                lastId = segment.replay(lastId, offset -> index(segment.read(offset).userId(), segmentIndex, offset));
+            }
+
+            if (segments.isEmpty()) {
+                segments.add(HistorySegment.open(directory.resolve(HistorySegment.fileName(1)), properties.segmentSize().toBytes()));
+            }
+            active = segments.get(segments.size() - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 내역 파일을 열 수 없습니다. directory=" + directory, e);
+        }
+        log.info("point history replayed. segments={}, lastId={}", segments.size(), lastId);
+
+        running = true;
+        if (properties.fsync() == FsyncPolicy.PERIODIC) {
+            Thread thread = new Thread(this::runSyncer, "point-history-fsync");
+            thread.setDaemon(true);
+            syncer = thread;
+            thread.start();
+        }
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        writeLock.lock();
+        try {
+            if (!active.hasRoom()) {
+                roll();
+            }
+
+            PointHistory pointHistory = new PointHistory(lastId + 1, userId, amount, type, updateMillis);
+            int offset = active.append(pointHistory);
+            lastId = pointHistory.id();
+            index(userId, segments.size() - 1, offset);
+
+            if (properties.fsync() == FsyncPolicy.WRITE) {
+                active.force();
+            }
+            return pointHistory;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void sync() {
+        if (properties.fsync() == FsyncPolicy.BATCH) {
+            force();
+        }
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        UserPositions userPositions = positions.get(userId);
+        if (userPositions == null) {
+            return List.of();
+        }
+
+        int count = userPositions.size;
+        long[] current = userPositions.positions;
+        List<PointHistory> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(read(current[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Long> selectUserIds() {
+        return positions.keySet().stream();
+    }
+
+    @Override
+    public List<PointHistory> selectByUserIdAfter(long userId, long afterId, int maxRows, Predicate<PointHistory> filter) {
+        UserPositions userPositions = positions.get(userId);
+        if (userPositions == null) {
+            return List.of();
+        }
+
+        int count = userPositions.size;
+        long[] current = userPositions.positions;
+
+        // afterId 보다 큰 첫 번째 위치, 사용자별 위치는 id 순서로 쌓인다.
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (readId(current[mid]) <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        List<PointHistory> result = new ArrayList<>(Math.min(maxRows, count - low));
+        for (int i = low; i < count && result.size() < maxRows; i++) {
+            PointHistory pointHistory = read(current[i]);
+            if (filter.test(pointHistory)) {
+                result.add(pointHistory);
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        Thread thread = syncer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(properties.fsyncInterval().toMillis() + 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        writeLock.lock();
+        try {
+            for (HistorySegment segment : segments) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.error("point history close failed", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 현재 세그먼트를 디스크에 반영하고 다음 id 로 시작하는 새 세그먼트를 연다.
+    private void roll() {
+        active.force();
+        Path next = active.path().resolveSibling(HistorySegment.fileName(lastId + 1));
+        try {
+            active = HistorySegment.open(next, properties.segmentSize().toBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("포인트 내역 세그먼트를 만들 수 없습니다. file=" + next, e);
+        }
+        segments.add(active);
+    }
+
+    private void force() {
+        writeLock.lock();
+        try {
+            active.force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void runSyncer() {
+        while (running) {
+            LockSupport.parkNanos(this, properties.fsyncInterval().toNanos());
+            try {
+                force();
+            } catch (RuntimeException e) {
+                log.error("point history fsync failed", e);
+            }
+        }
+    }
+
+    private void index(long userId, int segmentIndex, int offset) {
+        positions.computeIfAbsent(userId, id -> new UserPositions()).append(((long) segmentIndex << 32) | offset);
+    }
+
+    private PointHistory read(long position) {
+        return segments.get((int) (position >>> 32)).read((int) position);
+    }
+
+    private long readId(long position) {
+        return segments.get((int) (position >>> 32)).readId((int) position);
+    }
+
+    /**
+     * 한 사용자의 레코드 위치 목록 (세그먼트 번호 << 32 | 세그먼트 안의 위치).
+     * 쓰기는 writeLock 안에서만 하며, size 를 마지막에 volatile 로 기록해서 size 만큼의 위치는 조회 스레드에서 항상 보이도록 한다.
+     */
+    private static final class UserPositions {
+        private volatile long[] positions = new long[4];
+        private volatile int size;
+
+        private void append(long position) {
+            int index = size;
+            long[] current = positions;
+            if (index == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[index] = position;
+            positions = current;
+            size = index + 1;
+        }
+    }
+}
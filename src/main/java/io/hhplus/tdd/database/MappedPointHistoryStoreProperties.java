@@ -0,0 +1,23 @@
+package io.hhplus.tdd.database;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 메모리 맵 파일 내역 저장소 설정
+ * - directory : 세그먼트 파일을 저장할 디렉터리
+ * - segmentSize : 세그먼트 파일 하나의 크기, 가득 차면 새 세그먼트로 넘어간다.
+ * - fsync : 디스크 반영 시점 (write | batch | periodic)
+ * - fsyncInterval : periodic 일 때 디스크 반영 주기
+ */
+@ConfigurationProperties("point.history.store.mapped")
+public record MappedPointHistoryStoreProperties(
+        @DefaultValue("data/point-history") String directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("batch") FsyncPolicy fsync,
+        @DefaultValue("1s") Duration fsyncInterval
+) {
+}
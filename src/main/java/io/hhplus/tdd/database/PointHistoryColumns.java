@@ -0,0 +1,95 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 포인트 내역을 열(column) 단위 기본형 배열에 저장한다.
+ * 한 행은 userId(8) amount(8) updateMillis(8) type(1) = 25 bytes 이며, id 는 행 번호 + 1 이므로 따로 저장하지 않는다.
+ * 배열은 2^16 행 단위 청크로 늘리므로 기존 행은 복사되지 않는다. PointHistory 는 읽을 때만 만든다.
+ * 추가는 한 번에 한 스레드만 호출해야 하고, size 만큼의 행은 락 없이 동시에 읽을 수 있다.
+ */
+final class PointHistoryColumns {
+
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private volatile Chunk[] chunks = new Chunk[1];
+    private volatile int size;
+
+    int size() {
+        return size;
+    }
+
+    // 추가한 행 번호를 반환한다.
+    int add(long userId, long amount, TransactionType type, long updateMillis) {
+        int row = size;
+        if (row == Integer.MAX_VALUE) {
+            throw new IllegalStateException("내역 행 수가 최대치에 도달했습니다.");
+        }
+        int chunk = row >>> CHUNK_SHIFT;
+        Chunk[] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new Chunk();
+        }
+
+        int index = row & CHUNK_MASK;
+        Chunk target = current[chunk];
+        target.userIds[index] = userId;
+        target.amounts[index] = amount;
+        target.updateMillis[index] = updateMillis;
+        target.types[index] = (byte) type.ordinal();
+        chunks = current;
+        size = row + 1;
+        return row;
+    }
+
+    static long idOf(int row) {
+        return row + 1L;
+    }
+
+    long userId(int row) {
+        return chunks[row >>> CHUNK_SHIFT].userIds[row & CHUNK_MASK];
+    }
+
+    PointHistory get(int row) {
+        Chunk chunk = chunks[row >>> CHUNK_SHIFT];
+        int index = row & CHUNK_MASK;
+        return new PointHistory(idOf(row), chunk.userIds[index], chunk.amounts[index], TYPES[chunk.types[index]], chunk.updateMillis[index]);
+    }
+
+    /**
+     * 인덱스 없이 userId 열만 훑어서 사용자의 내역을 찾는다. PointHistoryTable.selectAllByUserId 와 같은 방식이다.
+     */
+    List<PointHistory> scanByUserId(long userId) {
+        int count = size;
+        Chunk[] current = chunks;
+        List<PointHistory> result = new ArrayList<>();
+        for (int chunk = 0; chunk * CHUNK_SIZE < count; chunk++) {
+            long[] userIds = current[chunk].userIds;
+            int length = Math.min(CHUNK_SIZE, count - chunk * CHUNK_SIZE);
+            for (int i = 0; i < length; i++) {
+                if (userIds[i] == userId) {
+                    result.add(get(chunk * CHUNK_SIZE + i));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Chunk {
+        private final long[] userIds = new long[CHUNK_SIZE];
+        private final long[] amounts = new long[CHUNK_SIZE];
+        private final long[] updateMillis = new long[CHUNK_SIZE];
+        private final byte[] types = new byte[CHUNK_SIZE];
+    }
+}
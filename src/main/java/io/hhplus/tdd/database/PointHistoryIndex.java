@@ -0,0 +1,118 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 사용자별 포인트 내역 인덱스.
+ * 사용자마다 내역을 추가된 순서대로 청크 배열에 덧붙이므로, 조회 비용은 전체 내역 수가 아니라 해당 사용자의 내역 수에만 비례한다.
+ * 추가는 한 번에 한 스레드만 호출해야 하고, 조회는 락 없이 동시에 호출할 수 있다.
+ */
+public class PointHistoryIndex {
+
+    private final ConcurrentHashMap<Long, UserRows> rows = new ConcurrentHashMap<>();
+
+    public void add(PointHistory pointHistory) {
+        rows.computeIfAbsent(pointHistory.userId(), id -> new UserRows()).append(pointHistory);
+    }
+
+    public List<PointHistory> findAllByUserId(long userId) {
+        UserRows userRows = rows.get(userId);
+        return userRows == null ? List.of() : userRows.toList();
+    }
+
+    /**
+     * afterId 보다 id 가 큰 내역 중 filter 를 만족하는 내역을 최대 maxRows 건 조회한다.
+     * 사용자별 내역은 id 순서로 쌓이므로 시작 위치는 이진 탐색으로 찾고, maxRows 를 채우면 더 이상 읽지 않는다.
+     */
+    public List<PointHistory> findByUserIdAfter(long userId, long afterId, int maxRows, Predicate<PointHistory> filter) {
+        UserRows userRows = rows.get(userId);
+        return userRows == null ? List.of() : userRows.findAfter(afterId, maxRows, filter);
+    }
+
+    public Stream<Long> userIds() {
+        return rows.keySet().stream();
+    }
+
+    public int countByUserId(long userId) {
+        UserRows userRows = rows.get(userId);
+        return userRows == null ? 0 : userRows.size;
+    }
+
+    /**
+     * 한 사용자의 내역. 청크가 가득 차면 새 청크만 추가하므로 기존 내역은 복사되지 않는다.
+     * size 를 마지막에 volatile 로 기록해서, size 만큼의 내역은 조회 스레드에서 항상 보이도록 한다.
+     */
+    private static final class UserRows {
+        private static final int CHUNK_SHIFT = 4;
+        private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        private volatile PointHistory[][] chunks = new PointHistory[1][];
+        private volatile int size;
+
+        private void append(PointHistory pointHistory) {
+            int index = size;
+            int chunk = index >>> CHUNK_SHIFT;
+            PointHistory[][] current = chunks;
+            if (chunk == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            if (current[chunk] == null) {
+                current[chunk] = new PointHistory[CHUNK_SIZE];
+            }
+            current[chunk][index & CHUNK_MASK] = pointHistory;
+            chunks = current;
+            size = index + 1;
+        }
+
+        private List<PointHistory> findAfter(long afterId, int maxRows, Predicate<PointHistory> filter) {
+            int count = size;
+            PointHistory[][] current = chunks;
+
+            // afterId 보다 큰 첫 번째 위치
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (get(current, mid).id() <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            List<PointHistory> result = new ArrayList<>(Math.min(maxRows, count - low));
+            for (int i = low; i < count && result.size() < maxRows; i++) {
+                PointHistory pointHistory = get(current, i);
+                if (filter.test(pointHistory)) {
+                    result.add(pointHistory);
+                }
+            }
+            return result;
+        }
+
+        private static PointHistory get(PointHistory[][] current, int index) {
+            return current[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        private List<PointHistory> toList() {
+            int count = size;
+            PointHistory[][] current = chunks;
+            PointHistory[] result = new PointHistory[count];
+            for (int chunk = 0, copied = 0; copied < count; chunk++) {
+                int length = Math.min(CHUNK_SIZE, count - copied);
+                System.arraycopy(current[chunk], 0, result, copied, length);
+                copied += length;
+            }
+            return Collections.unmodifiableList(Arrays.asList(result));
+        }
+    }
+}
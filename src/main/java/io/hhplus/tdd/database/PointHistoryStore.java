@@ -0,0 +1,43 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 포인트 내역 저장소.
+ * PointService 가 사용하는 PointHistoryTable 의 연산을 그대로 제공한다.
+ */
+public interface PointHistoryStore {
+
+    PointHistory insert(long userId, long amount, TransactionType type, long updateMillis);
+
+    List<PointHistory> selectAllByUserId(long userId);
+
+    /**
+     * 내역이 있는 사용자 ID 를 순서 없이 조회한다.
+     * 저장소를 복사하지 않고 훑으므로, 조회 도중 처음 내역이 생긴 사용자는 포함되지 않을 수 있다.
+     */
+    Stream<Long> selectUserIds();
+
+    /**
+     * 지금까지 저장한 내역을 영구 저장소에 반영한다. 내역을 묶음으로 저장한 뒤 호출한다.
+     */
+    default void sync() {
+    }
+
+    /**
+     * afterId 보다 id 가 큰 내역 중 filter 를 만족하는 내역을 id 순서로 최대 maxRows 건 조회한다.
+     * maxRows 를 채우면 나머지 내역은 읽지 않는다.
+     */
+    default List<PointHistory> selectByUserIdAfter(long userId, long afterId, int maxRows, Predicate<PointHistory> filter) {
+        return selectAllByUserId(userId).stream()
+                .filter(pointHistory -> pointHistory.id() > afterId)
+                .filter(filter)
+                .limit(maxRows)
+                .toList();
+    }
+}
@@ -0,0 +1,79 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 잔액을 기본형 배열 맵(BalanceMap)에 두는 UserPointTable.
+ * 원본은 사용자마다 Long 키, HashMap.Node, UserPoint 객체를 두지만, 여기서는 사용자 한 명이 24 bytes 칸 하나만 차지하고
+ * UserPoint 는 조회/저장 결과를 돌려줄 때만 만든다. 칸은 설정에 따라 힙 밖에 둘 수 있어 GC 가 훑을 객체가 늘지 않는다.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "point.balance.store.type", havingValue = "primitive")
+public class PrimitiveUserPointTable extends UserPointTable {
+
+    private final BalanceMap balances;
+    private final StampedLock lock = new StampedLock();
+
+    public PrimitiveUserPointTable(PrimitiveUserPointTableProperties properties) {
+        this.balances = new BalanceMap(properties.expectedUsers(), properties.offHeap());
+    }
+
+    // 쓰기와 겹치지 않으면 락 없이 읽고, 겹쳤으면 읽기 락으로 다시 읽는다.
+    @Override
+    public UserPoint selectById(Long id) {
+        long stamp = lock.tryOptimisticRead();
+        UserPoint userPoint = read(id);
+        if (lock.validate(stamp)) {
+            return userPoint;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return read(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        long updateMillis = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            balances.put(id, amount, updateMillis);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return new UserPoint(id, amount, updateMillis);
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return balances.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // 잔액 칸이 차지하는 메모리 (bytes)
+    public long footprint() {
+        long stamp = lock.readLock();
+        try {
+            return balances.footprint();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private UserPoint read(long id) {
+        int index = balances.indexOf(id);
+        return index < 0 ? UserPoint.empty(id) : new UserPoint(id, balances.pointAt(index), balances.millisAt(index));
+    }
+}
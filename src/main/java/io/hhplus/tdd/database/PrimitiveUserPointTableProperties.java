@@ -0,0 +1,16 @@
+package io.hhplus.tdd.database;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 기본형 잔액 저장소 설정
+ * - offHeap : true 이면 잔액을 힙 밖(direct ByteBuffer)에 둔다. -XX:MaxDirectMemorySize 가 충분해야 한다.
+ * - expectedUsers : 잔액 맵의 초기 크기를 정하기 위한 예상 사용자 수
+ */
+@ConfigurationProperties("point.balance.store.primitive")
+public record PrimitiveUserPointTableProperties(
+        @DefaultValue("false") boolean offHeap,
+        @DefaultValue("1000000") int expectedUsers
+) {
+}
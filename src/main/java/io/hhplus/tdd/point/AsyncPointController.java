@@ -0,0 +1,65 @@
+package io.hhplus.tdd.point;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PointController 의 비동기 버전.
+ * 작업은 포인트 요청 실행기에서 처리되고, 서블릿 스레드는 결과를 기다리지 않고 바로 반환된다.
+ * 실행기 대기열이 가득 차거나(REQUEST_QUEUE_FULL) 대기열에서 시작하지 못한 채 시간이 초과되면(REQUEST_TIMEOUT) 503 으로 응답한다.
+ * 실행을 시작한 충전/사용은 시간이 지나도 실패로 응답하지 않고 결과를 기다린다.
+ * 충전/사용은 실행기에 넣기 전에 사용자별 요청 수 제한을 확인하고, 걸리면 바로 429 로 응답한다.
+ * Idempotency-Key 헤더는 PointController 와 같이 처리한다.
+ */
+@RestController
+@RequestMapping("/point/async")
+@RequiredArgsConstructor
+public class AsyncPointController {
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final PointService pointService;
+    private final IdempotencyCache idempotencyCache;
+    private final PointRateLimiter pointRateLimiter;
+
+    @GetMapping("{id}")
+    public CompletableFuture<UserPoint> point(
+            @PathVariable long id
+    ) {
+        return pointService.getUserPointAsync(id);
+    }
+
+    @GetMapping("{id}/histories")
+    public CompletableFuture<List<PointHistory>> history(
+            @PathVariable long id
+    ) {
+        return pointService.getPointHistoriesAsync(id);
+    }
+
+    @PatchMapping("{id}/charge")
+    public CompletableFuture<UserPoint> charge(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        return idempotencyCache.executeAsync(idempotencyKey, id, TransactionType.CHARGE, amount, () -> {
+            pointRateLimiter.acquire(TransactionType.CHARGE, id);
+            return pointService.chargePointAsync(id, amount);
+        });
+    }
+
+    @PatchMapping("{id}/use")
+    public CompletableFuture<UserPoint> use(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        return idempotencyCache.executeAsync(idempotencyKey, id, TransactionType.USE, amount, () -> {
+            pointRateLimiter.acquire(TransactionType.USE, id);
+            return pointService.usePointAsync(id, amount);
+        });
+    }
+}
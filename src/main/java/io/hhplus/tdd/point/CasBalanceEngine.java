@@ -0,0 +1,263 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static io.hhplus.tdd.point.PointMetrics.TableCall.USER_POINT_SELECT;
+import static io.hhplus.tdd.point.PointMetrics.TableCall.USER_POINT_UPSERT;
+
+/**
+ * 락 없이 CAS 로 잔액을 갱신하는 엔진.
+ * 메모리상의 잔액이 원본이며, UserPointTable 에는 백그라운드 스레드가 사용자별 최신 잔액만 모아서 반영한다.
+ * 잔액 검증은 락 방식과 동일하게 UserPoint.charge / UserPoint.use 를 그대로 사용한다.
+ *
+ * 메모리에는 충전/사용한 사용자만 둔다. 조회만 한 사용자와 존재하지 않는 사용자(빈 잔액)는 등록하지 않고,
+ * 테이블에 반영된 뒤 idleTimeout 동안 변경되지 않은 잔액은 제거한다. 제거된 사용자는 다음 요청 때 테이블에서 다시 읽는다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.engine.type", havingValue = "cas")
+public class CasBalanceEngine implements PointBalanceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(CasBalanceEngine.class);
+    // 메모리에서 제거된 잔액 표시, 이 값을 읽은 스레드는 맵에서 다시 찾는다.
+    private static final UserPoint EVICTED = new UserPoint(Long.MIN_VALUE, 0L, 0L);
+
+    private final UserPointTable userPointTable;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final CasBalanceEngineProperties properties;
+    private final PointMetrics pointMetrics;
+
+    // 사용자별 잔액 (원본)
+    private final ConcurrentHashMap<Long, Balance> balances = new ConcurrentHashMap<>();
+    // 구간별 제거 횟수, 테이블을 읽는 동안 제거가 있었는지 확인한다.
+    private final AtomicLongArray evictions = new AtomicLongArray(64);
+    // 테이블 반영이 필요한 사용자
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public CasBalanceEngine(UserPointTable userPointTable,
+                            PointHistoryWriter pointHistoryWriter,
+                            CasBalanceEngineProperties properties,
+                            PointMetrics pointMetrics) {
+        this.userPointTable = userPointTable;
+        this.pointHistoryWriter = pointHistoryWriter;
+        this.properties = properties;
+        this.pointMetrics = pointMetrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::runWriter, "point-balance-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public UserPoint get(long userId) {
+        Balance balance = balances.get(userId);
+        if (balance != null) {
+            UserPoint current = balance.get();
+            if (current != EVICTED) {
+                return current;
+            }
+        }
+        // 메모리에 없는 사용자는 테이블 값이 최신이다. 조회만으로는 등록하지 않는다.
+        return pointMetrics.recordTable(USER_POINT_SELECT, () -> userPointTable.selectById(userId));
+    }
+
+    @Override
+    public UserPoint charge(long userId, long amount, Consumer<UserPoint> precondition) {
+        return apply(userId, amount, TransactionType.CHARGE, precondition, current -> UserPoint.charge(current, amount));
+    }
+
+    @Override
+    public UserPoint use(long userId, long amount, Consumer<UserPoint> precondition) {
+        return apply(userId, amount, TransactionType.USE, precondition, current -> UserPoint.use(current, amount));
+    }
+
+    /**
+     * 변경된 잔액을 테이블에 반영한다.
+     * 반영 도중 다시 변경된 사용자는 dirty 에 다시 등록되므로 다음 반영 때 최신 값이 쓰인다.
+     */
+    public void writeThrough() {
+        writeLock.lock();
+        try {
+            Iterator<Long> iterator = dirty.iterator();
+            while (iterator.hasNext()) {
+                Long userId = iterator.next();
+                iterator.remove();
+                Balance balance = balances.get(userId);
+                UserPoint latest = balance == null ? EVICTED : balance.get();
+                // 제거된 잔액은 이미 반영된 값이다.
+                if (latest == EVICTED) {
+                    continue;
+                }
+                pointMetrics.recordTable(USER_POINT_UPSERT, () -> userPointTable.insertOrUpdate(userId, latest.point()));
+                balance.written = latest;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 테이블에 반영된 뒤 idleTimeout 동안 변경되지 않은 잔액과 빈 잔액을 메모리에서 제거한다.
+     */
+    public void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - properties.idleTimeout().toMillis();
+        for (Map.Entry<Long, Balance> entry : balances.entrySet()) {
+            UserPoint current = entry.getValue().get();
+            if (current != EVICTED && (current.isEmpty() || current.updateMillis() <= idleBefore)) {
+                evict(entry.getKey(), entry.getValue(), current);
+            }
+        }
+    }
+
+    // 메모리에 있는 사용자 수
+    public int size() {
+        return balances.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(properties.writeInterval().toMillis() + 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 종료 전에 남은 잔액을 모두 반영
+        writeThrough();
+    }
+
+    private UserPoint apply(long userId, long amount, TransactionType type, Consumer<UserPoint> precondition, UnaryOperator<UserPoint> operation) {
+        while (true) {
+            Balance balance = balance(userId);
+            UserPoint current = balance.get();
+            if (current == EVICTED) {
+                continue;
+            }
+            UserPoint next;
+            try {
+                precondition.accept(current);
+                // 한도 초과, 잔액 부족이면 여기서 예외가 발생하고 잔액은 바뀌지 않는다.
+                next = operation.apply(current);
+            } catch (RuntimeException e) {
+                // 존재하지 않는 사용자의 빈 잔액은 남겨두지 않는다.
+                if (current.isEmpty()) {
+                    evict(userId, balance, current);
+                }
+                throw e;
+            }
+            if (balance.compareAndSet(current, next)) {
+                // 성공한 변경마다 정확히 한 번 내역을 남긴다.
+                pointHistoryWriter.appendBlocking(userId, amount, type, next.updateMillis());
+                dirty.add(userId);
+                return next;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private Balance balance(long userId) {
+        while (true) {
+            Balance balance = balances.get(userId);
+            if (balance != null) {
+                if (balance.get() != EVICTED) {
+                    return balance;
+                }
+                // 제거 중인 잔액이면 맵에서 마저 지우고 다시 읽는다.
+                balances.remove(userId, balance);
+                continue;
+            }
+
+            // 처음 접근하는 사용자는 테이블에서 읽어온다. 동시에 읽었다면 먼저 등록된 값을 사용한다.
+            // 읽는 동안 다른 스레드가 등록, 변경, 반영, 제거까지 마쳤다면 읽은 값이 오래된 것이므로 다시 읽는다.
+            int stripe = stripe(userId);
+            long evicted = evictions.get(stripe);
+            UserPoint loaded = pointMetrics.recordTable(USER_POINT_SELECT, () -> userPointTable.selectById(userId));
+            Balance installed = balances.compute(userId, (id, existing) -> {
+                if (existing != null) {
+                    return existing;
+                }
+                return evictions.get(stripe) == evicted ? new Balance(loaded) : null;
+            });
+            if (installed != null) {
+                return installed;
+            }
+        }
+    }
+
+    /**
+     * 테이블에 반영된 값(expected)에서 바뀌지 않았을 때만 제거한다.
+     * 값을 EVICTED 로 CAS 해서 제거하므로 그 사이 변경된 잔액은 제거되지 않고, 제거 뒤에 이 잔액으로 시도한 CAS 는 모두 실패한다.
+     */
+    private void evict(long userId, Balance balance, UserPoint expected) {
+        if (expected != balance.written) {
+            return;
+        }
+        // 제거 전에 늘려서, 그 전에 테이블을 읽기 시작한 스레드가 오래된 값을 등록하지 않도록 한다.
+        evictions.incrementAndGet(stripe(userId));
+        if (balance.compareAndSet(expected, EVICTED)) {
+            balances.remove(userId, balance);
+        }
+    }
+
+    private static int stripe(long userId) {
+        return (int) ((userId * 0x9E3779B97F4A7C15L) >>> 58);
+    }
+
+    private void runWriter() {
+        long nextEviction = System.nanoTime() + properties.idleTimeout().toNanos();
+        while (running) {
+            LockSupport.parkNanos(this, properties.writeInterval().toNanos());
+            try {
+                writeThrough();
+                // 전체 잔액을 훑으므로 idleTimeout 마다 한 번만 한다.
+                if (System.nanoTime() - nextEviction >= 0) {
+                    evictIdle();
+                    nextEviction = System.nanoTime() + properties.idleTimeout().toNanos();
+                }
+            } catch (RuntimeException e) {
+                log.error("point balance write-through failed", e);
+            }
+        }
+    }
+
+    // 사용자 잔액 (원본) 과 테이블에 마지막으로 반영한 값
+    private static final class Balance extends AtomicReference<UserPoint> {
+
+        private volatile UserPoint written;
+
+        private Balance(UserPoint loaded) {
+            super(loaded);
+            this.written = loaded;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * CAS 잔액 엔진 설정
+ * - writeInterval : 변경된 잔액을 UserPointTable 에 반영하는 주기
+ * - idleTimeout : 테이블에 반영된 뒤 이 시간 동안 변경되지 않은 잔액은 메모리에서 제거한다.
+ */
+@ConfigurationProperties("point.engine.cas")
+public record CasBalanceEngineProperties(
+        @DefaultValue("100ms") Duration writeInterval,
+        @DefaultValue("1m") Duration idleTimeout
+) {
+}
@@ -0,0 +1,163 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+/**
+ * 같은 사용자에 대한 동시 충전/사용을 모아서 한 번에 반영하는 엔진.
+ * 요청은 사용자별 대기열에 쌓이고, 락을 잡은 스레드가 그때까지 쌓인 요청을 도착 순서대로 모두 처리한다.
+ * 잔액 조회와 저장은 묶음마다 한 번씩만 하며, 각 요청은 누적 잔액으로 따로 검증하므로
+ * 한도를 넘는 요청이 있어도 나머지 요청은 그대로 반영된다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.engine.type", havingValue = "group-commit")
+public class GroupCommitBalanceEngine extends LockingBalanceEngine {
+
+    // 사용자별 대기열, 추가와 꺼내기는 모두 ConcurrentHashMap 의 원자적 연산으로만 한다.
+    private final ConcurrentHashMap<Long, List<PendingOperation>> pending = new ConcurrentHashMap<>();
+
+    public GroupCommitBalanceEngine(UserPointTable userPointTable,
+                                    PointHistoryWriter pointHistoryWriter,
+                                    UserLockRegistry lockRegistry,
+                                    UserPointCache userPointCache,
+                                    PointMetrics pointMetrics) {
+        super(userPointTable, pointHistoryWriter, lockRegistry, userPointCache, pointMetrics);
+    }
+
+    @Override
+    public UserPoint charge(long userId, long amount, Consumer<UserPoint> precondition) {
+        return submit(new PointOperation(userId, TransactionType.CHARGE, amount), precondition);
+    }
+
+    @Override
+    public UserPoint use(long userId, long amount, Consumer<UserPoint> precondition) {
+        return submit(new PointOperation(userId, TransactionType.USE, amount), precondition);
+    }
+
+    private UserPoint submit(PointOperation operation, Consumer<UserPoint> precondition) {
+        long userId = operation.userId();
+        PendingOperation mine = new PendingOperation(operation, precondition);
+        pending.compute(userId, (id, queue) -> {
+            List<PendingOperation> operations = queue != null ? queue : new ArrayList<>();
+            operations.add(mine);
+            return operations;
+        });
+
+        long acquiredAt;
+        try {
+            acquiredAt = lock(userId); // 락 시작
+        } catch (PointException e) {
+            // 거절된 요청이 대기열에 남아 다음에 락을 잡은 스레드가 반영하지 않도록 꺼낸다.
+            if (withdraw(userId, mine)) {
+                throw e;
+            }
+            // 이미 락을 잡은 스레드가 가져가서 처리 중이면 그 결과를 따른다.
+            return mine.await();
+        }
+        try {
+            // 앞서 락을 잡은 스레드가 이미 처리했으면 결과만 가져간다.
+            if (!mine.isDone()) {
+                commit(userId, pending.remove(userId));
+            }
+        } finally {
+            unlock(userId, acquiredAt); // 락 해제
+        }
+        return mine.result();
+    }
+
+    // 대기열에 남아있던 요청을 꺼냈으면 true, 이미 다른 스레드가 가져갔으면 false
+    private boolean withdraw(long userId, PendingOperation mine) {
+        boolean[] removed = {false};
+        pending.computeIfPresent(userId, (id, operations) -> {
+            removed[0] = operations.remove(mine);
+            return operations.isEmpty() ? null : operations;
+        });
+        return removed[0];
+    }
+
+    private void commit(long userId, List<PendingOperation> group) {
+        try {
+            List<PointOperationResult> results = applyLocked(userId,
+                    group.stream().map(PendingOperation::operation).toList(),
+                    group.stream().map(PendingOperation::precondition).toList());
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            // 테이블 오류 등으로 묶음 전체가 실패하면 함께 모인 요청도 모두 실패로 돌려준다.
+            group.forEach(operation -> operation.fail(e));
+            throw e;
+        }
+    }
+
+    // 락 안에서만 쓰고 락을 잡은 뒤에 읽는다. 락을 잡지 못한 요청은 done 으로 처리 결과를 기다린다.
+    private static final class PendingOperation {
+
+        private final PointOperation operation;
+        private final Consumer<UserPoint> precondition;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private PointOperationResult result;
+        private RuntimeException failure;
+
+        private PendingOperation(PointOperation operation, Consumer<UserPoint> precondition) {
+            this.operation = operation;
+            this.precondition = precondition;
+        }
+
+        private PointOperation operation() {
+            return operation;
+        }
+
+        private Consumer<UserPoint> precondition() {
+            return precondition;
+        }
+
+        private boolean isDone() {
+            return result != null || failure != null;
+        }
+
+        private void complete(PointOperationResult result) {
+            this.result = result;
+            done.countDown();
+        }
+
+        private void fail(RuntimeException failure) {
+            this.failure = failure;
+            done.countDown();
+        }
+
+        // 락을 잡은 스레드는 처리를 마칠 때까지 락을 놓지 않으므로 오래 기다리지 않는다.
+        private UserPoint await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return result();
+        }
+
+        private UserPoint result() {
+            if (failure != null) {
+                throw failure;
+            }
+            if (!result.success()) {
+                throw new PointException(result.code(), result.message());
+            }
+            return result.userPoint();
+        }
+    }
+}
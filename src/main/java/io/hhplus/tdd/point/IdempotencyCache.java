@@ -0,0 +1,266 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 별 충전/사용 결과를 일정 시간 기억해서, 같은 키로 다시 온 요청에는 처음 결과를 그대로 돌려준다.
+ * 처음 요청이 아직 처리 중이면 다시 실행하지 않고 그 결과를 기다린다.
+ * 실패한 요청은 잔액이 바뀌지 않았으므로 기억하지 않고, 같은 키로 다시 시도할 수 있다.
+ *
+ * 키는 들어온 순서대로 구간별 LinkedHashMap 에 두므로 만료된 키는 항상 앞쪽에 모여 있고,
+ * 새 키를 넣을 때 앞에서부터 만료된 키를 지우고 maxSize 를 넘으면 가장 오래된 키를 지운다.
+ * 따라서 조회와 정리 모두 O(1)(정리는 분할 상환)이고, 메모리는 maxSize 개 키와 결과로 제한된다.
+ */
+@Component
+public class IdempotencyCache {
+
+    // 키 하나가 차지하는 메모리를 제한한다. UUID(36자), ULID(26자) 를 담을 수 있는 길이
+    static final int MAX_KEY_LENGTH = 64;
+
+    private final long ttlNanos;
+    private final long waitTimeoutNanos;
+    private final Segment[] segments;
+
+    private final LongAdder replayCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public IdempotencyCache(IdempotencyCacheProperties properties) {
+        this.ttlNanos = properties.ttl().toNanos();
+        this.waitTimeoutNanos = properties.waitTimeout().toNanos();
+        int segmentCount = Math.max(1, properties.segments());
+        int segmentSize = Math.max(1, properties.maxSize() / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * 키가 없으면 바로 실행한다.
+     * 같은 키로 다른 사용자, 종류, 금액의 요청이 오면 처음 요청의 결과를 돌려주지 않고 예외를 던진다.
+     */
+    public UserPoint execute(String key, long userId, TransactionType type, long amount, Supplier<UserPoint> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        Claim claim = claim(key, userId, type, amount);
+        if (claim.owner()) {
+            return run(claim, operation);
+        }
+        replayCount.increment();
+        return await(claim.entry());
+    }
+
+    /**
+     * execute 의 비동기 버전. 처음 요청의 결과도 기다리지 않고 CompletableFuture 로 돌려준다.
+     * 처음 요청이 waitTimeout 안에 끝나지 않으면 IDEMPOTENCY_KEY_IN_PROGRESS 로 실패한다.
+     */
+    public CompletableFuture<UserPoint> executeAsync(String key, long userId, TransactionType type, long amount,
+                                                     Supplier<CompletableFuture<UserPoint>> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        Claim claim = claim(key, userId, type, amount);
+        if (claim.owner()) {
+            return runAsync(claim, operation);
+        }
+        replayCount.increment();
+        // 기다리는 쪽에서 시간 초과로 완료해도 처음 요청의 결과에는 영향이 없도록 복사본을 기다린다.
+        return claim.entry().result.copy()
+                .orTimeout(waitTimeoutNanos, TimeUnit.NANOSECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        throw inProgress();
+                    }
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    // 처음 결과를 돌려준 (또는 처리 중인 요청을 기다린) 횟수
+    public long replayCount() {
+        return replayCount.sum();
+    }
+
+    // 크기 초과 또는 만료로 제거된 수
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    // 키를 처음 사용한 요청이면 owner
+    private Claim claim(String key, long userId, TransactionType type, long amount) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new PointException("INVALID_IDEMPOTENCY_KEY", "Idempotency-Key 는 1~" + MAX_KEY_LENGTH + "자여야 합니다.");
+        }
+
+        Segment segment = segmentFor(key);
+        Entry entry;
+        boolean owner = false;
+        segment.lock.lock();
+        try {
+            long now = System.nanoTime();
+            segment.expire(now);
+            entry = segment.entries.get(key);
+            if (entry == null) {
+                entry = new Entry(userId, type, amount, now);
+                segment.entries.put(key, entry);
+                owner = true;
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (!entry.matches(userId, type, amount)) {
+            throw new PointException("IDEMPOTENCY_KEY_REUSED", "이미 다른 요청에 사용된 Idempotency-Key 입니다.");
+        }
+        return new Claim(segment, key, entry, owner);
+    }
+
+    private UserPoint run(Claim claim, Supplier<UserPoint> operation) {
+        UserPoint result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            fail(claim, e);
+            throw e;
+        }
+        claim.entry().result.complete(result);
+        return result;
+    }
+
+    private CompletableFuture<UserPoint> runAsync(Claim claim, Supplier<CompletableFuture<UserPoint>> operation) {
+        CompletableFuture<UserPoint> result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            fail(claim, e);
+            throw e;
+        }
+        return result.whenComplete((userPoint, e) -> {
+            if (e == null) {
+                claim.entry().result.complete(userPoint);
+            } else {
+                fail(claim, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+    }
+
+    // 실패한 요청은 기억하지 않고, 기다리던 요청에는 같은 예외를 돌려준다.
+    private void fail(Claim claim, Throwable e) {
+        claim.segment().lock.lock();
+        try {
+            claim.segment().entries.remove(claim.key(), claim.entry());
+        } finally {
+            claim.segment().lock.unlock();
+        }
+        claim.entry().result.completeExceptionally(e);
+    }
+
+    private UserPoint await(Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // 처음 요청과 같은 예외를 그대로 던진다.
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    private static PointException inProgress() {
+        return new PointException("IDEMPOTENCY_KEY_IN_PROGRESS", "같은 Idempotency-Key 의 요청이 아직 처리 중입니다.");
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return segments[(hash >>> 1) % segments.length];
+    }
+
+    private record Claim(Segment segment, String key, Entry entry, boolean owner) {
+    }
+
+    // 같은 키의 요청끼리 결과를 나누고, 다른 내용의 요청에 키가 다시 쓰였는지 확인하기 위해 요청 내용을 함께 둔다.
+    private static final class Entry {
+        private final long userId;
+        private final TransactionType type;
+        private final long amount;
+        private final long createdAt;
+        private final CompletableFuture<UserPoint> result = new CompletableFuture<>();
+
+        private Entry(long userId, TransactionType type, long amount, long createdAt) {
+            this.userId = userId;
+            this.type = type;
+            this.amount = amount;
+            this.createdAt = createdAt;
+        }
+
+        private boolean matches(long userId, TransactionType type, long amount) {
+            return this.userId == userId && this.type == type && this.amount == amount;
+        }
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Entry> entries;
+
+        private Segment(int maxSize) {
+            // 들어온 순서 유지
+            this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > maxSize) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        // 앞에서부터 만료된 키 제거, 만료되지 않은 키를 만나면 멈춘다.
+        private void expire(long now) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (now - iterator.next().createdAt < ttlNanos) {
+                    return;
+                }
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 충전/사용 요청의 Idempotency-Key 중복 제거 설정
+ * - maxSize : 기억하는 최대 키 수. 넘으면 가장 먼저 들어온 키부터 제거
+ * - ttl : 키를 기억하는 시간. 이 시간이 지난 뒤 같은 키로 요청하면 새 요청으로 처리한다.
+ * - segments : 락 경합을 줄이기 위해 저장소를 나누는 구간 수
+ * - waitTimeout : 같은 키의 요청이 처리 중일 때 결과를 기다리는 최대 시간
+ */
+@ConfigurationProperties("point.idempotency")
+public record IdempotencyCacheProperties(
+        @DefaultValue("200000") int maxSize,
+        @DefaultValue("1m") Duration ttl,
+        @DefaultValue("16") int segments,
+        @DefaultValue("5s") Duration waitTimeout
+) {
+}
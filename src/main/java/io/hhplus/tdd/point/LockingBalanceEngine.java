@@ -0,0 +1,124 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static io.hhplus.tdd.point.PointMetrics.TableCall.USER_POINT_SELECT;
+import static io.hhplus.tdd.point.PointMetrics.TableCall.USER_POINT_UPSERT;
+
+@Component
+@ConditionalOnProperty(name = "point.engine.type", havingValue = "lock", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LockingBalanceEngine implements PointBalanceEngine {
+
+    private final UserPointTable userPointTable;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final UserLockRegistry lockRegistry;
+    private final UserPointCache userPointCache;
+    private final PointMetrics pointMetrics;
+
+    @Override
+    public UserPoint get(long userId) {
+        return userPointCache.get(userId, id -> pointMetrics.recordTable(USER_POINT_SELECT, () -> userPointTable.selectById(id)));
+    }
+
+    @Override
+    public UserPoint charge(long userId, long amount, Consumer<UserPoint> precondition) {
+        long acquiredAt = lock(userId); // 락 시작
+        try {
+            UserPoint userPoint = get(userId);
+            precondition.accept(userPoint);
+            UserPoint charged = UserPoint.charge(userPoint, amount);
+
+            // 내역을 먼저 대기열에 넣어서, 대기열이 가득 차 거절되면 잔액도 바뀌지 않도록 한다.
+            pointHistoryWriter.append(charged.id(), amount, TransactionType.CHARGE, charged.updateMillis());
+            return save(charged);
+        } finally {
+            unlock(userId, acquiredAt); // 락 해제
+        }
+    }
+
+    @Override
+    public UserPoint use(long userId, long amount, Consumer<UserPoint> precondition) {
+        long acquiredAt = lock(userId); // 락 시작
+        try {
+            UserPoint userPoint = get(userId);
+            precondition.accept(userPoint);
+            UserPoint used = UserPoint.use(userPoint, amount);
+
+            pointHistoryWriter.append(used.id(), amount, TransactionType.USE, used.updateMillis());
+            return save(used);
+        } finally {
+            unlock(userId, acquiredAt); // 락 해제
+        }
+    }
+
+    /**
+     * 락을 한 번만 잡고, 잔액도 한 번만 읽어서 요청을 순서대로 반영한 뒤 최종 잔액만 한 번 저장한다.
+     */
+    @Override
+    public List<PointOperationResult> applyAll(long userId, List<PointOperation> operations) {
+        long acquiredAt = lock(userId); // 락 시작
+        try {
+            return applyLocked(userId, operations, Collections.nCopies(operations.size(), NO_PRECONDITION));
+        } finally {
+            unlock(userId, acquiredAt); // 락 해제
+        }
+    }
+
+    /**
+     * 사용자 락을 잡은 상태에서만 호출한다.
+     * preconditions 는 요청마다 하나씩이며, 해당 요청 직전까지 반영된 잔액으로 호출된다.
+     */
+    protected List<PointOperationResult> applyLocked(long userId, List<PointOperation> operations, List<Consumer<UserPoint>> preconditions) {
+        List<PointOperationResult> results = new ArrayList<>(operations.size());
+        UserPoint initial = get(userId);
+        UserPoint balance = initial;
+        for (int i = 0; i < operations.size(); i++) {
+            PointOperation operation = operations.get(i);
+            try {
+                preconditions.get(i).accept(balance);
+                UserPoint next = operation.applyTo(balance);
+                // 내역이 거절되면 이 요청은 실패로 처리하고 잔액에도 반영하지 않는다.
+                pointHistoryWriter.append(userId, operation.amount(), operation.type(), next.updateMillis());
+                balance = next;
+                results.add(PointOperationResult.success(operation, next));
+            } catch (PointException e) {
+                results.add(PointOperationResult.failure(operation, e));
+            }
+        }
+
+        if (balance != initial) {
+            save(balance);
+        }
+        return results;
+    }
+
+    // 테이블이 돌려준 행을 캐시에 넣어서, 다음 조회가 실제로 저장된 잔액과 수정 시각을 보도록 한다.
+    private UserPoint save(UserPoint balance) {
+        UserPoint saved = pointMetrics.recordTable(USER_POINT_UPSERT, () -> userPointTable.insertOrUpdate(balance.id(), balance.point()));
+        userPointCache.put(saved);
+        return saved;
+    }
+
+    // 락 대기 시간을 기록하고 락을 잡은 시각을 돌려준다.
+    protected long lock(long userId) {
+        long start = System.nanoTime();
+        lockRegistry.lock(userId);
+        long acquiredAt = System.nanoTime();
+        pointMetrics.recordLockWait(acquiredAt - start);
+        return acquiredAt;
+    }
+
+    protected void unlock(long userId, long acquiredAt) {
+        lockRegistry.unlock(userId);
+        pointMetrics.recordLockHold(System.nanoTime() - acquiredAt);
+    }
+}
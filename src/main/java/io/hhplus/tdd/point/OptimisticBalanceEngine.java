@@ -0,0 +1,65 @@
+package io.hhplus.tdd.point;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * 락 없이 잔액 버전으로 충돌을 감지하는 엔진.
+ * 잔액과 버전을 읽고 검증한 뒤, 읽은 버전이 그대로일 때만 테이블에 쓴다. 그 사이 다른 쓰기가 있었으면
+ * 잠시 기다렸다가(지수 backoff + jitter) 다시 읽어서 처음부터 다시 계산한다.
+ * CAS 엔진과 달리 테이블에 바로 쓰므로 응답한 잔액은 이미 테이블에 반영되어 있다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.engine.type", havingValue = "optimistic")
+@RequiredArgsConstructor
+public class OptimisticBalanceEngine implements PointBalanceEngine {
+
+    private final VersionedUserPointTable versionedUserPointTable;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final OptimisticBalanceEngineProperties properties;
+    private final PointMetrics pointMetrics;
+
+    @Override
+    public UserPoint get(long userId) {
+        return versionedUserPointTable.selectById(userId).userPoint();
+    }
+
+    @Override
+    public UserPoint charge(long userId, long amount, Consumer<UserPoint> precondition) {
+        return apply(userId, amount, TransactionType.CHARGE, precondition, current -> UserPoint.charge(current, amount));
+    }
+
+    @Override
+    public UserPoint use(long userId, long amount, Consumer<UserPoint> precondition) {
+        return apply(userId, amount, TransactionType.USE, precondition, current -> UserPoint.use(current, amount));
+    }
+
+    private UserPoint apply(long userId, long amount, TransactionType type, Consumer<UserPoint> precondition, UnaryOperator<UserPoint> operation) {
+        long backoffNanos = properties.initialBackoff().toNanos();
+        for (int attempt = 1; ; attempt++) {
+            VersionedUserPoint current = versionedUserPointTable.selectById(userId);
+            precondition.accept(current.userPoint());
+            // 한도 초과, 잔액 부족이면 여기서 예외가 발생하고 잔액은 바뀌지 않는다.
+            UserPoint next = operation.apply(current.userPoint());
+
+            // 내역을 먼저 대기열에 넣어서, 대기열이 가득 차 거절되면 잔액도 바뀌지 않도록 한다.
+            if (versionedUserPointTable.compareAndSet(userId, current.version(), next,
+                    () -> pointHistoryWriter.append(userId, amount, type, next.updateMillis()))) {
+                return next;
+            }
+
+            pointMetrics.conflicted(type == TransactionType.CHARGE ? PointMetrics.Operation.CHARGE : PointMetrics.Operation.USE);
+            if (attempt >= properties.maxAttempts()) {
+                throw new PointException("CONCURRENT_UPDATE", "다른 요청과 동시에 변경되어 처리하지 못했습니다. 다시 시도해주세요.");
+            }
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(backoffNanos + 1));
+            backoffNanos = Math.min(backoffNanos * 2, properties.maxBackoff().toNanos());
+        }
+    }
+}
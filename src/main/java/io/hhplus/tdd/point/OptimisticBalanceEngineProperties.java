@@ -0,0 +1,21 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 낙관적 잔액 엔진 설정
+ * - maxAttempts : 버전 충돌 시 다시 시도하는 횟수를 포함한 최대 시도 횟수. 모두 충돌하면 CONCURRENT_UPDATE 로 실패
+ * - initialBackoff : 첫 충돌 후 기다리는 최대 시간, 충돌할 때마다 두 배씩 늘린다.
+ * - maxBackoff : 기다리는 시간의 상한
+ * 실제로 기다리는 시간은 0 ~ 현재 backoff 사이의 임의의 값이다. (full jitter)
+ */
+@ConfigurationProperties("point.engine.optimistic")
+public record OptimisticBalanceEngineProperties(
+        @DefaultValue("10") int maxAttempts,
+        @DefaultValue("5ms") Duration initialBackoff,
+        @DefaultValue("200ms") Duration maxBackoff
+) {
+}
@@ -0,0 +1,59 @@
+package io.hhplus.tdd.point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 사용자 잔액을 조회하고 충전/사용을 반영하는 방식
+ * - lock : 사용자별 ReentrantLock 으로 직렬화 (기본값)
+ * - cas : 메모리상의 잔액을 CAS 로 갱신하고 테이블에는 비동기 반영
+ * - group-commit : lock 과 같되, 같은 사용자의 동시 요청을 모아서 잔액 조회/저장을 한 번만 수행
+ * - sharded : 사용자를 샤드로 나누고 샤드마다 한 스레드가 잔액을 변경, 테이블에는 비동기 반영
+ * - optimistic : 사용자별 잔액 버전으로 충돌을 감지해서 테이블에 바로 반영, 충돌하면 backoff 후 재시도
+ * point.engine.type 설정으로 선택한다.
+ */
+public interface PointBalanceEngine {
+
+    UserPoint get(long userId);
+
+    // 검증 없이 충전/사용
+    Consumer<UserPoint> NO_PRECONDITION = userPoint -> {
+    };
+
+    /**
+     * precondition 은 변경 직전에 읽은 잔액으로, 변경과 같은 임계 구역 안에서 호출된다.
+     * 사용자 존재 여부 같은 검증을 따로 조회하지 않고 이 한 번의 읽기로 처리하기 위해 사용한다.
+     */
+    UserPoint charge(long userId, long amount, Consumer<UserPoint> precondition);
+
+    UserPoint use(long userId, long amount, Consumer<UserPoint> precondition);
+
+    default UserPoint charge(long userId, long amount) {
+        return charge(userId, amount, NO_PRECONDITION);
+    }
+
+    default UserPoint use(long userId, long amount) {
+        return use(userId, amount, NO_PRECONDITION);
+    }
+
+    /**
+     * 한 사용자의 충전/사용 요청을 순서대로 처리하고 요청별 결과를 반환한다.
+     * 실패한 요청은 결과에만 기록하고 다음 요청을 계속 처리한다.
+     */
+    default List<PointOperationResult> applyAll(long userId, List<PointOperation> operations) {
+        List<PointOperationResult> results = new ArrayList<>(operations.size());
+        for (PointOperation operation : operations) {
+            try {
+                UserPoint userPoint = switch (operation.type()) {
+                    case CHARGE -> charge(userId, operation.amount());
+                    case USE -> use(userId, operation.amount());
+                };
+                results.add(PointOperationResult.success(operation, userPoint));
+            } catch (PointException e) {
+                results.add(PointOperationResult.failure(operation, e));
+            }
+        }
+        return results;
+    }
+}
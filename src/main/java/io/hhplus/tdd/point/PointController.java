@@ -3,7 +3,10 @@ package io.hhplus.tdd.point;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,8 +16,12 @@ import java.util.List;
 public class PointController {
 
     private static final Logger log = LoggerFactory.getLogger(PointController.class);
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
     private final PointService pointService;
+    private final PointHistoryExportService pointHistoryExportService;
+    private final IdempotencyCache idempotencyCache;
+    private final PointRateLimiter pointRateLimiter;
 
     /**
      * TODO - 특정 유저의 포인트를 조회하는 기능을 작성해주세요.
@@ -39,27 +46,103 @@ public class PointController {
         return pointService.getPointHistories(id);
     }
 
+    /**
+     * 특정 유저의 포인트 충전/이용 내역을 페이지 단위로 조회한다.
+     * 응답의 nextCursor 를 다음 요청의 cursor 로 사용한다.
+     */
+    @GetMapping("{id}/histories/page")
+    public PointHistoryPage historyPage(
+            @PathVariable long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) TransactionType type
+    ) {
+        return pointService.getPointHistoryPage(id, new PointHistoryQuery(cursor, limit, from, to, type));
+    }
+
+    /**
+     * 특정 유저의 누적 충전/사용 금액, 내역 수, 마지막 이용 시각을 조회한다.
+     */
+    @GetMapping("{id}/summary")
+    public PointSummary summary(
+            @PathVariable long id
+    ) {
+        return pointService.getPointSummary(id);
+    }
+
+    /**
+     * 특정 유저의 포인트 충전/이용 내역 전체를 NDJSON 또는 CSV 로 내보낸다.
+     * 내역을 목록으로 모으지 않고 읽는 대로 응답에 쓰며, 응답 크기를 미리 알 수 없으므로 chunked 로 전송된다.
+     */
+    @GetMapping("{id}/histories/stream")
+    public ResponseEntity<StreamingResponseBody> streamHistories(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "NDJSON") PointHistoryFormat format
+    ) {
+        return stream(format, pointHistoryExportService.exportPointHistories(id, format));
+    }
+
+    /**
+     * 전체 유저의 포인트 충전/이용 내역을 NDJSON 또는 CSV 로 내보낸다. (정산 대사용)
+     */
+    @GetMapping("histories/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllHistories(
+            @RequestParam(defaultValue = "NDJSON") PointHistoryFormat format
+    ) {
+        return stream(format, pointHistoryExportService.exportAllPointHistories(format));
+    }
+
     /**
      * TODO - 특정 유저의 포인트를 충전하는 기능을 작성해주세요.
+     * Idempotency-Key 헤더가 있으면 같은 키로 재시도한 요청은 다시 충전하지 않고 처음 결과를 반환한다.
+     * 사용자별 요청 수 제한은 처음 결과를 돌려주는 재시도에는 적용하지 않는다.
      */
     @PatchMapping("{id}/charge")
     public UserPoint charge(
             @PathVariable long id,
-            @RequestBody long amount
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
     ) {
-        UserPoint current = pointService.getUserPoint(id);
-        return pointService.chargePoint(current, amount);
+        return idempotencyCache.execute(idempotencyKey, id, TransactionType.CHARGE, amount, () -> {
+            pointRateLimiter.acquire(TransactionType.CHARGE, id);
+            return pointService.chargePoint(id, amount);
+        });
     }
 
     /**
      * TODO - 특정 유저의 포인트를 사용하는 기능을 작성해주세요.
+     * Idempotency-Key 헤더가 있으면 같은 키로 재시도한 요청은 다시 사용하지 않고 처음 결과를 반환한다.
+     * 사용자별 요청 수 제한은 처음 결과를 돌려주는 재시도에는 적용하지 않는다.
      */
     @PatchMapping("{id}/use")
     public UserPoint use(
             @PathVariable long id,
-            @RequestBody long amount
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
     ) {
-        UserPoint current = pointService.getUserPoint(id);
-        return pointService.usePoint(current, amount);
+        return idempotencyCache.execute(idempotencyKey, id, TransactionType.USE, amount, () -> {
+            pointRateLimiter.acquire(TransactionType.USE, id);
+            return pointService.usePoint(id, amount);
+        });
+    }
+
+    /**
+     * 여러 사용자의 포인트 충전/사용을 한 번에 처리한다.
+     * 결과는 요청과 같은 순서로 반환하며, 실패한 요청은 PointException 의 code 와 message 를 담는다.
+     * 사용자별 요청 수 제한은 요청 한 건마다 적용하고, 제한에 걸린 요청만 TOO_MANY_REQUESTS 로 실패한다.
+     */
+    @PostMapping("batch")
+    public List<PointOperationResult> batch(
+            @RequestBody List<PointOperation> operations
+    ) {
+        return pointService.applyBatch(operations, operation -> pointRateLimiter.acquireBatchOperation(operation.type(), operation.userId()));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(PointHistoryFormat format, PointHistoryExport export) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .body(export::writeTo);
     }
 }
@@ -0,0 +1,25 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 포인트 서비스 내부 실행기 설정
+ * - batchParallelism : 일괄 처리 시 동시에 처리하는 사용자 수 (플랫폼 스레드 모드)
+ * - virtualThreads : true 이면 작업마다 가상 스레드를 사용한다. 기본적으로 spring.threads.virtual.enabled 를 따른다.
+ * - requestParallelism : 비동기 요청을 동시에 처리하는 스레드 수
+ * - requestQueueCapacity : 처리를 기다릴 수 있는 비동기 요청 수, 넘치면 503 으로 거절한다.
+ * - requestTimeout : 비동기 요청이 대기열에서 기다릴 수 있는 최대 시간, 넘으면 실행하지 않고 503 으로 응답한다.
+ *   이미 실행을 시작한 요청은 끝날 때까지 기다린다.
+ */
+@ConfigurationProperties("point.executor")
+public record PointExecutorProperties(
+        @DefaultValue("8") int batchParallelism,
+        @DefaultValue("false") boolean virtualThreads,
+        @DefaultValue("64") int requestParallelism,
+        @DefaultValue("1000") int requestQueueCapacity,
+        @DefaultValue("5s") Duration requestTimeout
+) {
+}
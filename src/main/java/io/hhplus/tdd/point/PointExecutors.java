@@ -0,0 +1,81 @@
+package io.hhplus.tdd.point;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 포인트 서비스 내부에서 사용하는 실행기.
+ * Executor 를 빈으로 등록하면 스프링 기본 applicationTaskExecutor 가 만들어지지 않으므로 컴포넌트 안에서 직접 관리한다.
+ */
+@Component
+public class PointExecutors {
+
+    private final ExecutorService batchExecutor;
+    private final ThreadPoolExecutor requestExecutor;
+    private final Duration requestTimeout;
+
+    public PointExecutors(PointExecutorProperties properties) {
+        // 가상 스레드는 블로킹되어도 비용이 작으므로 풀 크기를 제한하지 않는다.
+        this.batchExecutor = properties.virtualThreads()
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("point-batch-", 1).factory())
+                : Executors.newFixedThreadPool(properties.batchParallelism(), threadFactory("point-batch-"));
+
+        // 비동기 요청은 대기열 크기를 제한해서, 넘치는 요청은 쌓아두지 않고 바로 거절한다. (AbortPolicy)
+        this.requestExecutor = new ThreadPoolExecutor(
+                properties.requestParallelism(), properties.requestParallelism(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.requestQueueCapacity()),
+                properties.virtualThreads()
+                        ? Thread.ofVirtual().name("point-request-", 1).factory()
+                        : threadFactory("point-request-"));
+        this.requestTimeout = properties.requestTimeout();
+    }
+
+    // 일괄 처리에서 사용자별 작업을 실행
+    public Executor batch() {
+        return batchExecutor;
+    }
+
+    // 비동기 요청을 실행, 대기열이 가득 차면 RejectedExecutionException
+    public Executor requests() {
+        return requestExecutor;
+    }
+
+    // 아직 시작하지 않은 비동기 요청을 대기열에서 꺼낸다. 이미 시작했으면 false
+    public boolean cancel(Runnable task) {
+        return requestExecutor.remove(task);
+    }
+
+    public Duration requestTimeout() {
+        return requestTimeout;
+    }
+
+    // 처리를 기다리는 비동기 요청 수
+    public int queuedRequestCount() {
+        return requestExecutor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdown();
+        requestExecutor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
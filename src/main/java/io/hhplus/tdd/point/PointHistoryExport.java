@@ -0,0 +1,13 @@
+package io.hhplus.tdd.point;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 검증을 마친 내역 내보내기. writeTo 를 호출할 때 저장소를 읽으면서 바로 쓴다.
+ */
+@FunctionalInterface
+public interface PointHistoryExport {
+
+    void writeTo(OutputStream out) throws IOException;
+}
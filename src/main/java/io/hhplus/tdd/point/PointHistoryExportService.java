@@ -0,0 +1,74 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 포인트 내역을 전체 목록으로 만들지 않고 페이지 단위로 읽으면서 바로 응답에 쓴다.
+ * 한 번에 메모리에 올라가는 내역은 PAGE_SIZE 건뿐이므로 내역 수와 관계없이 사용하는 메모리가 일정하다.
+ */
+@Service
+@RequiredArgsConstructor
+public class PointHistoryExportService {
+
+    static final int PAGE_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PointBalanceEngine balanceEngine;
+    private final PointHistoryStore pointHistoryStore;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final PointValidator validator;
+
+    //사용자 포인트 내역 내보내기 (응답을 쓰기 전에 사용자 검증)
+    public PointHistoryExport exportPointHistories(long userId, PointHistoryFormat format) {
+        UserPoint userPoint = balanceEngine.get(userId);
+        //사용자 검증
+        validator.validateUserExists(userPoint);
+
+        pointHistoryWriter.flushForRead(userId);
+        return out -> write(format, List.of(userId).iterator(), out);
+    }
+
+    //전체 사용자 포인트 내역 내보내기 (사용자 순서는 정해져 있지 않고, 사용자별 내역은 id 순서)
+    public PointHistoryExport exportAllPointHistories(PointHistoryFormat format) {
+        pointHistoryWriter.flushForRead();
+        return out -> {
+            try (Stream<Long> userIds = pointHistoryStore.selectUserIds()) {
+                write(format, userIds.iterator(), out);
+            }
+        };
+    }
+
+    private void write(PointHistoryFormat format, Iterator<Long> userIds, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(format.header());
+        while (userIds.hasNext()) {
+            long userId = userIds.next();
+            long afterId = 0L;
+            List<PointHistory> page;
+            do {
+                page = pointHistoryStore.selectByUserIdAfter(userId, afterId, PAGE_SIZE, pointHistory -> true);
+                for (PointHistory pointHistory : page) {
+                    writer.write(format.line(pointHistory));
+                }
+                // 페이지마다 내보내서 응답이 청크 단위로 바로 전송되도록 한다.
+                writer.flush();
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == PAGE_SIZE);
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,54 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 내역 내보내기 형식
+ * - NDJSON : 한 줄에 내역 하나를 JSON 객체로
+ * - CSV : 첫 줄은 헤더, 이후 한 줄에 내역 하나
+ */
+public enum PointHistoryFormat {
+
+    NDJSON("application/x-ndjson") {
+        @Override
+        public String header() {
+            return "";
+        }
+
+        // 값이 모두 숫자와 enum 이름이므로 이스케이프가 필요 없다.
+        @Override
+        public String line(PointHistory pointHistory) {
+            return "{\"id\":" + pointHistory.id()
+                    + ",\"userId\":" + pointHistory.userId()
+                    + ",\"amount\":" + pointHistory.amount()
+                    + ",\"type\":\"" + pointHistory.type().name()
+                    + "\",\"updateMillis\":" + pointHistory.updateMillis()
+                    + "}\n";
+        }
+    },
+
+    CSV("text/csv") {
+        @Override
+        public String header() {
+            return "id,userId,amount,type,updateMillis\n";
+        }
+
+        @Override
+        public String line(PointHistory pointHistory) {
+            return pointHistory.id() + "," + pointHistory.userId() + "," + pointHistory.amount() + ","
+                    + pointHistory.type().name() + "," + pointHistory.updateMillis() + "\n";
+        }
+    };
+
+    private final String contentType;
+
+    PointHistoryFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public abstract String header();
+
+    public abstract String line(PointHistory pointHistory);
+}
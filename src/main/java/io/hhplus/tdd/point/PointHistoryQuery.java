@@ -0,0 +1,29 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 내역 페이지 조회 조건
+ * - cursor : 이전 페이지의 nextCursor. 이 id 이후의 내역부터 조회 (없으면 처음부터)
+ * - limit : 한 페이지의 최대 내역 수
+ * - from / to : updateMillis 기준 조회 기간 (양 끝 포함, 없으면 제한 없음)
+ * - type : 충전/사용 구분 (없으면 전체)
+ */
+public record PointHistoryQuery(
+        Long cursor,
+        int limit,
+        Long from,
+        Long to,
+        TransactionType type
+) {
+
+    public static final int MAX_LIMIT = 100;
+
+    public long afterId() {
+        return cursor == null ? 0L : cursor;
+    }
+
+    public boolean matches(PointHistory pointHistory) {
+        return (from == null || pointHistory.updateMillis() >= from)
+                && (to == null || pointHistory.updateMillis() <= to)
+                && (type == null || pointHistory.type() == type);
+    }
+}
@@ -0,0 +1,381 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.hhplus.tdd.point.PointMetrics.TableCall.POINT_HISTORY_INSERT;
+
+/**
+ * 포인트 내역을 요청 스레드가 아닌 백그라운드 스레드에서 PointHistoryStore 에 적재한다.
+ * 충전/사용 요청은 대기열에 내역을 넣기만 하므로 사용자 락을 잡고 있는 시간에서 내역 저장 시간이 빠진다.
+ */
+@Component
+public class PointHistoryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryWriter.class);
+    // 종료 시 남은 내역 적재를 시도하는 횟수
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+
+    private final PointHistoryStore pointHistoryStore;
+    private final PointSummaries pointSummaries;
+    private final PointHistoryWriterProperties properties;
+    private final PointMetrics pointMetrics;
+    private final BlockingQueue<PendingHistory> queue;
+
+    // 저장소는 한 번에 하나의 스레드만 쓰도록 되어 있으므로 적재는 한 스레드씩 수행한다.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // 대기열에서 꺼냈지만 아직 적재하지 못한 내역 (저장 실패 또는 조회 시간 제한), flushLock 안에서만 사용한다.
+    // 대기열보다 먼저 들어온 내역이므로 다음 적재 때 가장 먼저 쓴다.
+    private final List<PendingHistory> unwritten = new ArrayList<>();
+    // 적재되지 않은 내역이 남은 채로 조회한 횟수
+    private final LongAdder staleReads = new LongAdder();
+
+    private volatile Thread flusher;
+    private volatile boolean running;
+
+    public PointHistoryWriter(PointHistoryStore pointHistoryStore, PointSummaries pointSummaries, PointHistoryWriterProperties properties,
+                              PointMetrics pointMetrics) {
+        this.pointHistoryStore = pointHistoryStore;
+        this.pointSummaries = pointSummaries;
+        this.properties = properties;
+        this.pointMetrics = pointMetrics;
+        this.queue = new ArrayBlockingQueue<>(properties.capacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::runFlusher, "point-history-flusher");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+    }
+
+    //내역 적재 요청
+    public void append(long userId, long amount, TransactionType type, long updateMillis) {
+        enqueue(new PendingHistory(userId, amount, type, updateMillis), properties.offerTimeout().toNanos());
+    }
+
+    /**
+     * append 와 같지만 대기열이 가득 차면 기다리지 않고 바로 HISTORY_QUEUE_FULL 로 거절한다.
+     * 여러 사용자의 요청을 한 스레드가 처리할 때(샤드 엔진) 한 요청 때문에 다른 사용자가 기다리지 않도록 사용한다.
+     */
+    public void tryAppend(long userId, long amount, TransactionType type, long updateMillis) {
+        enqueue(new PendingHistory(userId, amount, type, updateMillis), 0L);
+    }
+
+    /**
+     * 이미 반영된 변경의 내역을 적재한다.
+     * 되돌릴 수 없는 변경이므로 대기열이 가득 차도 거절하지 않고 빈 자리가 날 때까지 기다린다.
+     */
+    public void appendBlocking(long userId, long amount, TransactionType type, long updateMillis) {
+        PendingHistory history = new PendingHistory(userId, amount, type, updateMillis);
+
+        if (!running) {
+            writeDirectly(history);
+            return;
+        }
+
+        try {
+            queue.put(history);
+        } catch (InterruptedException e) {
+            // 인터럽트 되더라도 내역은 유실되지 않도록 직접 적재
+            Thread.currentThread().interrupt();
+            writeDirectly(history);
+            return;
+        }
+
+        afterEnqueue(history);
+    }
+
+    /**
+     * 현재 대기 중인 내역을 모두 적재한다.
+     * 이 메서드가 반환되면 호출 이전에 append 된 내역은 모두 테이블에서 조회할 수 있다.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            writePending(Long.MAX_VALUE);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 전체 내역 조회 전에 대기 중인 내역을 적재하되, readFlushTimeout 까지만 기다린다.
+     * 대기열이 길어도 조회가 오래 멈추지 않도록, 시간 안에 모두 적재하지 못하면 남은 내역은 백그라운드 스레드에 맡기고 false 를 반환한다.
+     * 이때 조회 결과에는 최근 내역 일부가 빠질 수 있으며 staleReadCount 로 센다. 적재 중인 내역 한 건은 끝까지 쓰므로 그만큼 더 걸릴 수 있다.
+     */
+    public boolean flushForRead() {
+        return flushBeforeRead(null);
+    }
+
+    /**
+     * 사용자 내역 조회 전에 대기 중인 내역을 적재한다.
+     * readFlushTimeout 안에 모두 적재하지 못하면 나머지 사용자의 내역은 백그라운드 스레드에 맡기고 이 사용자의 내역만 마저 적재하므로,
+     * 호출 이전에 append 된 이 사용자의 내역은 모두 조회된다.
+     * readFlushTimeout 안에 적재를 시작하지도 못하면(다른 적재가 끝나지 않으면) false 를 반환하고 staleReadCount 로 센다.
+     */
+    public boolean flushForRead(long userId) {
+        return flushBeforeRead(userId);
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    // 적재되지 않은 내역이 남은 채로 조회한 횟수
+    public long staleReadCount() {
+        return staleReads.sum();
+    }
+
+    /**
+     * 새 내역은 더 이상 대기열에 넣지 않고(running = false 이면 바로 적재) 남은 내역을 모두 적재한다.
+     * 종료와 동시에 대기열에 넣은 내역은 넣은 스레드가 다시 꺼내서 직접 적재하므로 남지 않는다.
+     * 이미 반영된 변경의 내역이므로 적재에 실패하면 flushInterval 간격으로 다시 시도하고,
+     * 그래도 남은 내역은 복구할 수 있도록 한 건씩 error 로그로 남긴다.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = flusher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(properties.flushInterval().toMillis() + 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 종료 전에 남은 내역을 모두 적재
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flush();
+                break;
+            } catch (RuntimeException e) {
+                if (attempt >= SHUTDOWN_FLUSH_ATTEMPTS) {
+                    logUnwritten(e);
+                    return;
+                }
+                log.warn("point history flush failed on shutdown. attempt={}", attempt, e);
+                LockSupport.parkNanos(this, properties.flushInterval().toNanos());
+            }
+        }
+        log.info("point history writer stopped. pending={}", queue.size());
+    }
+
+    // 적재하지 못하고 종료하는 내역을 남긴다.
+    private void logUnwritten(RuntimeException cause) {
+        flushLock.lock();
+        try {
+            queue.drainTo(unwritten);
+            log.error("point history writer stopped with unwritten histories. unwritten={}", unwritten.size(), cause);
+            for (PendingHistory history : unwritten) {
+                log.error("unwritten point history. userId={}, amount={}, type={}, updateMillis={}",
+                        history.userId(), history.amount(), history.type(), history.updateMillis());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void enqueue(PendingHistory history, long timeoutNanos) {
+        // 백그라운드 스레드가 없으면 바로 적재
+        if (!running) {
+            writeDirectly(history);
+            return;
+        }
+
+        if (!offer(history, timeoutNanos)) {
+            throw new PointException("HISTORY_QUEUE_FULL", "포인트 내역 저장 대기열이 가득 찼습니다.");
+        }
+
+        afterEnqueue(history);
+    }
+
+    private void afterEnqueue(PendingHistory history) {
+        // 넣는 사이에 종료되어 마지막 적재가 끝났을 수 있으므로, 아직 대기열에 있으면 다시 꺼내서 직접 적재한다.
+        if (!running) {
+            if (queue.remove(history)) {
+                writeDirectly(history);
+            }
+            return;
+        }
+
+        if (queue.size() >= properties.batchSize()) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private boolean offer(PendingHistory history, long timeoutNanos) {
+        try {
+            return queue.offer(history, timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // userId 가 null 이면 전체 내역 조회
+    private boolean flushBeforeRead(Long userId) {
+        long timeoutNanos = properties.readFlushTimeout().toNanos();
+        long deadline = System.nanoTime() + timeoutNanos;
+        boolean locked;
+        try {
+            locked = flushLock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            locked = false;
+        }
+        if (!locked) {
+            staleReads.increment();
+            return false;
+        }
+
+        try {
+            if (writePending(deadline)) {
+                return true;
+            }
+            if (userId == null) {
+                staleReads.increment();
+                return false;
+            }
+            writeUser(userId);
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            if (queue.size() < properties.batchSize()) {
+                LockSupport.parkNanos(this, properties.flushInterval().toNanos());
+            }
+
+            flushLock.lock();
+            try {
+                if (unwritten.isEmpty()) {
+                    queue.drainTo(unwritten, properties.batchSize());
+                }
+                write(unwritten, Long.MAX_VALUE);
+            } catch (RuntimeException e) {
+                // 이미 반영된 변경의 내역이므로 버리지 않고 다음 주기에 다시 적재한다.
+                log.error("point history flush failed. unwritten={}", unwritten.size(), e);
+                LockSupport.parkNanos(this, properties.flushInterval().toNanos());
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void writeDirectly(PendingHistory history) {
+        flushLock.lock();
+        try {
+            // 먼저 들어온 내역의 순서를 지키기 위해 대기열을 비운 뒤 적재
+            writePending(Long.MAX_VALUE);
+            unwritten.add(history);
+            write(unwritten, Long.MAX_VALUE);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // flushLock 을 잡은 상태에서 호출한다. 호출 시점까지 들어온 내역을 적재하고, deadline 전에 모두 적재했으면 true
+    private boolean writePending(long deadline) {
+        int remaining = queue.size();
+        while (true) {
+            if (unwritten.isEmpty()) {
+                if (remaining <= 0) {
+                    return true;
+                }
+                int drained = queue.drainTo(unwritten, Math.min(remaining, properties.batchSize()));
+                if (drained == 0) {
+                    return true;
+                }
+                remaining -= drained;
+            }
+            if (!write(unwritten, deadline)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * flushLock 을 잡은 상태에서 호출한다. userId 의 남은 내역만 먼저 들어온 순서대로 적재한다.
+     * 사용자별 순서는 지켜지고, 다른 사용자의 내역은 그 뒤에 원래 순서대로 적재된다.
+     */
+    private void writeUser(long userId) {
+        List<PendingHistory> rows = new ArrayList<>();
+        Iterator<PendingHistory> iterator = unwritten.iterator();
+        while (iterator.hasNext()) {
+            PendingHistory history = iterator.next();
+            if (history.userId() == userId) {
+                iterator.remove();
+                rows.add(history);
+            }
+        }
+        for (PendingHistory history : queue) {
+            if (history.userId() == userId && queue.remove(history)) {
+                rows.add(history);
+            }
+        }
+
+        try {
+            write(rows, Long.MAX_VALUE);
+        } finally {
+            // 적재하지 못한 내역은 가장 먼저 들어온 내역이므로 맨 앞에 되돌린다.
+            unwritten.addAll(0, rows);
+        }
+    }
+
+    /**
+     * rows 를 앞에서부터 적재하고 적재한 내역은 목록에서 뺀다.
+     * 저장 중 예외가 나거나 deadline 이 지나면 남은 내역은 rows 에 그대로 둔다. 모두 적재했으면 true
+     */
+    private boolean write(List<PendingHistory> rows, long deadline) {
+        int written = 0;
+        try {
+            for (PendingHistory history : rows) {
+                if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+                // 저장소 종류와 관계없이 내역 저장 시간을 같은 지표로 기록한다.
+                pointMetrics.recordTable(POINT_HISTORY_INSERT,
+                        () -> pointHistoryStore.insert(history.userId(), history.amount(), history.type(), history.updateMillis()));
+                // 내역 저장과 같은 임계 구역에서 요약 갱신
+                pointSummaries.record(history.userId(), history.type(), history.amount(), history.updateMillis());
+                written++;
+            }
+        } finally {
+            rows.subList(0, written).clear();
+            if (written > 0) {
+                pointHistoryStore.sync();
+            }
+        }
+        return rows.isEmpty();
+    }
+
+    private record PendingHistory(
+            long userId,
+            long amount,
+            TransactionType type,
+            long updateMillis
+    ) {
+    }
+}
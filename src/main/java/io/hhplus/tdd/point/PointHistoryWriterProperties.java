@@ -0,0 +1,24 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 포인트 내역 write-behind 설정
+ * - capacity : 대기열 최대 크기
+ * - batchSize : 한 번에 적재하는 최대 내역 수
+ * - flushInterval : 배치가 차지 않아도 적재를 시도하는 주기
+ * - offerTimeout : 대기열이 가득 찼을 때 요청 스레드가 기다리는 최대 시간
+ * - readFlushTimeout : 내역 조회 전에 대기 중인 내역을 적재하며 기다리는 최대 시간, 넘으면 적재된 내역까지만 조회한다.
+ */
+@ConfigurationProperties("point.history.write-behind")
+public record PointHistoryWriterProperties(
+        @DefaultValue("10000") int capacity,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("50ms") Duration flushInterval,
+        @DefaultValue("1s") Duration offerTimeout,
+        @DefaultValue("3s") Duration readFlushTimeout
+) {
+}
@@ -0,0 +1,97 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 락 저장소, 잔액 캐시, 내역 대기열, 중복 요청 저장소, 조회 합치기, 요청 수 제한이 이미 세고 있는 값을 지표로 노출한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PointMeterBinder implements MeterBinder {
+
+    private final UserLockRegistry lockRegistry;
+    private final UserPointCache userPointCache;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final PointExecutors pointExecutors;
+    private final IdempotencyCache idempotencyCache;
+    private final PointService pointService;
+    private final PointRateLimiter pointRateLimiter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("point.lock.acquired", lockRegistry, UserLockRegistry::acquiredCount)
+                .description("사용자 락 획득 횟수")
+                .register(registry);
+        FunctionCounter.builder("point.lock.contended", lockRegistry, UserLockRegistry::contendedCount)
+                .description("사용자 락을 기다려야 했던 횟수")
+                .register(registry);
+        Gauge.builder("point.lock.live", lockRegistry, UserLockRegistry::liveLockCount)
+                .description("사용 중인 사용자 락 수")
+                .register(registry);
+        Gauge.builder("point.lock.queue.max", lockRegistry, UserLockRegistry::maxQueueDepth)
+                .description("락을 기다리는 요청이 가장 많은 사용자의 대기 수")
+                .register(registry);
+        FunctionCounter.builder("point.lock.shed", lockRegistry, UserLockRegistry::queueFullCount)
+                .description("사용자 락을 기다리지 않고 거절한 요청 수")
+                .tag("reason", "queue_full")
+                .register(registry);
+        FunctionCounter.builder("point.lock.shed", lockRegistry, UserLockRegistry::timeoutCount)
+                .description("사용자 락을 기다리지 않고 거절한 요청 수")
+                .tag("reason", "timeout")
+                .register(registry);
+
+        FunctionCounter.builder("point.cache.hits", userPointCache, UserPointCache::hitCount)
+                .register(registry);
+        FunctionCounter.builder("point.cache.misses", userPointCache, UserPointCache::missCount)
+                .register(registry);
+        FunctionCounter.builder("point.cache.evictions", userPointCache, UserPointCache::evictionCount)
+                .register(registry);
+        Gauge.builder("point.cache.size", userPointCache, UserPointCache::size)
+                .register(registry);
+
+        FunctionCounter.builder("point.idempotency.replays", idempotencyCache, IdempotencyCache::replayCount)
+                .description("Idempotency-Key 로 처음 결과를 돌려준 횟수")
+                .register(registry);
+        FunctionCounter.builder("point.idempotency.evictions", idempotencyCache, IdempotencyCache::evictionCount)
+                .register(registry);
+        Gauge.builder("point.idempotency.size", idempotencyCache, IdempotencyCache::size)
+                .register(registry);
+
+        FunctionCounter.builder("point.reads.coalesced", pointService, PointService::coalescedPointReads)
+                .description("처리 중인 같은 사용자의 조회에 합쳐진 조회 수")
+                .tag("operation", "get")
+                .register(registry);
+        FunctionCounter.builder("point.reads.coalesced", pointService, PointService::coalescedHistoryReads)
+                .description("처리 중인 같은 사용자의 조회에 합쳐진 조회 수")
+                .tag("operation", "histories")
+                .register(registry);
+
+        for (TransactionType type : TransactionType.values()) {
+            FunctionCounter.builder("point.rate-limit.rejected", pointRateLimiter, limiter -> limiter.rejectedCount(type))
+                    .description("사용자별 요청 수 제한으로 거절한 요청 수")
+                    .tag("operation", type.name().toLowerCase())
+                    .register(registry);
+            FunctionCounter.builder("point.rate-limit.untracked", pointRateLimiter, limiter -> limiter.untrackedCount(type))
+                    .description("기억하는 사용자 수가 가득 차 제한 없이 받아들인 요청 수")
+                    .tag("operation", type.name().toLowerCase())
+                    .register(registry);
+        }
+        Gauge.builder("point.rate-limit.buckets", pointRateLimiter, PointRateLimiter::size)
+                .register(registry);
+
+        Gauge.builder("point.history.pending", pointHistoryWriter, PointHistoryWriter::pendingCount)
+                .description("적재를 기다리는 포인트 내역 수")
+                .register(registry);
+        FunctionCounter.builder("point.history.stale-reads", pointHistoryWriter, PointHistoryWriter::staleReadCount)
+                .description("적재되지 않은 내역이 남은 채로 내역을 조회한 횟수")
+                .register(registry);
+        Gauge.builder("point.request.queued", pointExecutors, PointExecutors::queuedRequestCount)
+                .description("처리를 기다리는 비동기 요청 수")
+                .register(registry);
+    }
+}
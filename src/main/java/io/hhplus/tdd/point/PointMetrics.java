@@ -0,0 +1,142 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 포인트 서비스 측정 지표
+ * - point.service.calls : 서비스 메서드 처리 시간 (operation)
+ * - point.validation : 요청 검증 시간, 실패한 검증 포함 (operation)
+ * - point.lock.wait / point.lock.hold : 사용자 락 대기 시간 / 락을 잡고 있던 시간
+ * - point.table.calls : UserPointTable 호출, 포인트 내역 저장 시간 (table, method)
+ * - point.rejections : PointException 으로 거절된 요청 수 (operation, code)
+ * 태그 조합이 고정되어 있으므로 Timer 는 미리 만들어 두고 호출마다 조회하지 않는다.
+ */
+@Component
+public class PointMetrics {
+
+    public enum Operation {
+        GET, CHARGE, USE, HISTORIES, HISTORY_PAGE, SUMMARY, BATCH;
+
+        private String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    public enum TableCall {
+        USER_POINT_SELECT("user_point", "selectById"),
+        USER_POINT_UPSERT("user_point", "insertOrUpdate"),
+        POINT_HISTORY_INSERT("point_history", "insert");
+
+        private final String table;
+        private final String method;
+
+        TableCall(String table, String method) {
+            this.table = table;
+            this.method = method;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Operation, Timer> serviceTimers = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> validationTimers = new EnumMap<>(Operation.class);
+    private final Map<TableCall, Timer> tableTimers = new EnumMap<>(TableCall.class);
+    private final Timer lockWait;
+    private final Timer lockHold;
+    private final ConcurrentHashMap<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Operation, Counter> conflicts = new ConcurrentHashMap<>();
+
+    public PointMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Operation operation : Operation.values()) {
+            serviceTimers.put(operation, Timer.builder("point.service.calls")
+                    .description("포인트 서비스 처리 시간")
+                    .tag("operation", operation.tag())
+                    .register(registry));
+            validationTimers.put(operation, Timer.builder("point.validation")
+                    .description("요청 검증 시간")
+                    .tag("operation", operation.tag())
+                    .register(registry));
+        }
+        for (TableCall call : TableCall.values()) {
+            tableTimers.put(call, Timer.builder("point.table.calls")
+                    .description("테이블 호출 시간")
+                    .tag("table", call.table)
+                    .tag("method", call.method)
+                    .register(registry));
+        }
+        this.lockWait = Timer.builder("point.lock.wait")
+                .description("사용자 락 획득 대기 시간")
+                .register(registry);
+        this.lockHold = Timer.builder("point.lock.hold")
+                .description("사용자 락 보유 시간")
+                .register(registry);
+    }
+
+    //서비스 호출 측정, 거절된 요청은 코드별로 함께 센다.
+    public <T> T recordService(Operation operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (PointException e) {
+            rejected(operation, e.getCode());
+            throw e;
+        } finally {
+            serviceTimers.get(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    //요청 검증 측정, 검증에 실패해도 기록한다.
+    public void recordValidation(Operation operation, Runnable validation) {
+        long start = System.nanoTime();
+        try {
+            validation.run();
+        } finally {
+            validationTimers.get(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    //테이블 호출 측정
+    public <T> T recordTable(TableCall call, Supplier<T> tableCall) {
+        long start = System.nanoTime();
+        try {
+            return tableCall.get();
+        } finally {
+            tableTimers.get(call).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLockHold(long nanos) {
+        lockHold.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rejected(Operation operation, String code) {
+        rejections.computeIfAbsent(operation.tag() + ':' + code, key -> Counter.builder("point.rejections")
+                        .description("거절된 포인트 요청 수")
+                        .tag("operation", operation.tag())
+                        .tag("code", code)
+                        .register(registry))
+                .increment();
+    }
+
+    //낙관적 갱신에서 버전이 바뀌어 다시 시도한 횟수
+    public void conflicted(Operation operation) {
+        conflicts.computeIfAbsent(operation, key -> Counter.builder("point.optimistic.conflicts")
+                        .description("버전 충돌로 다시 시도한 횟수")
+                        .tag("operation", key.tag())
+                        .register(registry))
+                .increment();
+    }
+}
@@ -0,0 +1,20 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 일괄 처리 요청의 포인트 충전/사용 한 건
+ */
+public record PointOperation(
+        long userId,
+        TransactionType type,
+        long amount
+) {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    public UserPoint applyTo(UserPoint current) {
+        return switch (type) {
+            case CHARGE -> UserPoint.charge(current, amount);
+            case USE -> UserPoint.use(current, amount);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 일괄 처리 요청 한 건의 처리 결과
+ * - 성공 : userPoint 에 처리 후 잔액
+ * - 실패 : code, message 에 PointException 의 내용
+ */
+public record PointOperationResult(
+        long userId,
+        TransactionType type,
+        long amount,
+        boolean success,
+        UserPoint userPoint,
+        String code,
+        String message
+) {
+
+    public static PointOperationResult success(PointOperation operation, UserPoint userPoint) {
+        return new PointOperationResult(operation.userId(), operation.type(), operation.amount(), true, userPoint, null, null);
+    }
+
+    public static PointOperationResult failure(PointOperation operation, PointException e) {
+        return new PointOperationResult(operation.userId(), operation.type(), operation.amount(), false, null, e.getCode(), e.getMessage());
+    }
+}
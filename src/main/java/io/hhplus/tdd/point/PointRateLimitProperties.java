@@ -0,0 +1,46 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 사용자별 충전/사용 요청 수 제한 설정
+ * - enabled : false 이면 제한하지 않는다.
+ * - maxUsers : 요청 종류별로 기억하는 최대 사용자 수. 가득 차면 한동안 요청이 없던 사용자부터 지우고, 지울 사용자가 없으면 제한하지 않는다.
+ * - charge / use : 요청 종류별 제한
+ *   - capacity : 한 번에 몰아서 보낼 수 있는 요청 수 (bucket 크기), 1 이상
+ *   - permitsPerSecond : 초당 채워지는 요청 수, 0 보다 커야 한다.
+ */
+@ConfigurationProperties("point.rate-limit")
+public record PointRateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int maxUsers,
+        @DefaultValue Limit charge,
+        @DefaultValue Limit use
+) {
+
+    public PointRateLimitProperties {
+        if (maxUsers <= 0) {
+            throw new IllegalArgumentException("point.rate-limit.max-users 는 1 이상이어야 합니다. maxUsers=" + maxUsers);
+        }
+    }
+
+    public record Limit(
+            @DefaultValue("20") int capacity,
+            @DefaultValue("10") double permitsPerSecond
+    ) {
+
+        // 1/permitsPerSecond 를 nanos 로 바꾸고 (capacity - 1) 을 곱해도 long 을 넘지 않아야 한다.
+        public Limit {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("요청 수 제한 capacity 는 1 이상이어야 합니다. capacity=" + capacity);
+            }
+            if (!(permitsPerSecond > 0 && permitsPerSecond <= 1_000_000_000d)) {
+                throw new IllegalArgumentException("요청 수 제한 permitsPerSecond 는 0 보다 크고 1e9 이하이어야 합니다. permitsPerSecond=" + permitsPerSecond);
+            }
+            if ((1_000_000_000d / permitsPerSecond) * (capacity - 1) >= Long.MAX_VALUE / 2d) {
+                throw new IllegalArgumentException("요청 수 제한 capacity / permitsPerSecond 가 너무 큽니다. capacity=" + capacity + ", permitsPerSecond=" + permitsPerSecond);
+            }
+        }
+    }
+}
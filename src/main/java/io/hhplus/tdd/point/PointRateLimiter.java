@@ -0,0 +1,146 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 사용자별, 요청 종류별 token bucket 요청 수 제한.
+ *
+ * bucket 은 GCRA(generic cell rate algorithm) 방식으로 "다음 요청이 bucket 을 비우지 않고 도착할 수 있는 시각(tat)" 하나만
+ * AtomicLong 에 두고 CAS 로 갱신한다. capacity 개까지 한 번에 받을 수 있고 1/permitsPerSecond 마다 한 개씩 채워지는
+ * token bucket 과 같은 결과를 내면서, 락 없이 long 하나만 읽고 쓴다.
+ *
+ * tat 가 현재 시각 이전인 bucket 은 가득 찬 새 bucket 과 같으므로 지워도 결과가 바뀌지 않는다.
+ * 새 사용자를 등록할 때 1초에 한 번씩 이런 bucket 을 지우고, 그래도 maxUsers 에 닿아 있으면 새 사용자는 제한하지 않고 받아들여서
+ * 메모리를 제한한다.
+ * 지우는 순간 같은 bucket 에 들어온 요청은 새 bucket 에 반영되지 않으므로 최대 한 번 더 받아들여질 수 있다.
+ */
+@Component
+public class PointRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final boolean enabled;
+    private final PointMetrics pointMetrics;
+    private final Map<TransactionType, Limiter> limiters = new EnumMap<>(TransactionType.class);
+
+    public PointRateLimiter(PointRateLimitProperties properties, PointMetrics pointMetrics) {
+        this.enabled = properties.enabled();
+        this.pointMetrics = pointMetrics;
+        limiters.put(TransactionType.CHARGE, new Limiter(properties.charge(), properties.maxUsers()));
+        limiters.put(TransactionType.USE, new Limiter(properties.use(), properties.maxUsers()));
+    }
+
+    /**
+     * 요청 하나를 받아들이거나, 제한에 걸렸으면 다시 시도할 수 있는 시간과 함께 RateLimitedException 을 던진다.
+     * 서비스에 도달하기 전에 거절되므로 거절된 요청은 여기서 point.rejections 에 센다.
+     */
+    public void acquire(TransactionType type, long userId) {
+        try {
+            acquireBatchOperation(type, userId);
+        } catch (RateLimitedException e) {
+            pointMetrics.rejected(type == TransactionType.CHARGE ? PointMetrics.Operation.CHARGE : PointMetrics.Operation.USE, e.getCode());
+            throw e;
+        }
+    }
+
+    /**
+     * acquire 와 같지만 point.rejections 에는 세지 않는다. 일괄 처리의 실패 결과는 일괄 처리 요청으로 세기 때문이다.
+     */
+    public void acquireBatchOperation(TransactionType type, long userId) {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = limiters.get(type).acquire(userId, System.nanoTime());
+        if (waitNanos > 0) {
+            throw new RateLimitedException(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    // 제한에 걸려 거절한 요청 수
+    public long rejectedCount(TransactionType type) {
+        return limiters.get(type).rejected.sum();
+    }
+
+    // 기억하지 못해 제한 없이 받아들인 요청 수 (maxUsers 초과)
+    public long untrackedCount(TransactionType type) {
+        return limiters.get(type).untracked.sum();
+    }
+
+    // 기억하고 있는 bucket 수
+    public int size() {
+        int size = 0;
+        for (Limiter limiter : limiters.values()) {
+            size += limiter.buckets.size();
+        }
+        return size;
+    }
+
+    private static final class Limiter {
+        private final long intervalNanos;
+        // 이만큼 앞선 tat 까지는 받아들인다. (capacity - 1) 개의 요청을 미리 당겨 쓸 수 있다.
+        private final long toleranceNanos;
+        private final int maxUsers;
+        private final ConcurrentHashMap<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong nextSweepAt = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder untracked = new LongAdder();
+
+        private Limiter(PointRateLimitProperties.Limit limit, int maxUsers) {
+            this.intervalNanos = (long) (1_000_000_000L / limit.permitsPerSecond());
+            this.toleranceNanos = intervalNanos * (limit.capacity() - 1);
+            this.maxUsers = maxUsers;
+        }
+
+        // 받아들였으면 0, 아니면 다시 시도할 수 있을 때까지 남은 시간
+        private long acquire(long userId, long now) {
+            AtomicLong bucket = buckets.get(userId);
+            if (bucket == null) {
+                bucket = register(userId, now);
+                if (bucket == null) {
+                    untracked.increment();
+                    return 0;
+                }
+            }
+
+            while (true) {
+                long tat = bucket.get();
+                long waitNanos = tat - toleranceNanos - now;
+                if (waitNanos > 0) {
+                    rejected.increment();
+                    return waitNanos;
+                }
+                long next = (tat - now > 0 ? tat : now) + intervalNanos;
+                if (bucket.compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private AtomicLong register(long userId, long now) {
+            // 전체를 훑는 정리는 한 스레드가 SWEEP_INTERVAL 마다 한 번만 한다.
+            long sweepAt = nextSweepAt.get();
+            if (now - sweepAt >= 0 && nextSweepAt.compareAndSet(sweepAt, now + SWEEP_INTERVAL_NANOS)) {
+                sweep(now);
+            }
+            if (buckets.size() >= maxUsers) {
+                return null;
+            }
+            AtomicLong created = new AtomicLong(now);
+            AtomicLong existing = buckets.putIfAbsent(userId, created);
+            return existing != null ? existing : created;
+        }
+
+        // 가득 찬 (tat 가 지난) bucket 제거
+        private void sweep(long now) {
+            buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+        }
+    }
+}
@@ -1,87 +1,290 @@
 package io.hhplus.tdd.point;
 
-import io.hhplus.tdd.database.PointHistoryTable;
-import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.database.PointHistoryStore;
+import io.hhplus.tdd.point.PointMetrics.Operation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class PointService {
 
-    private final UserPointTable userPointTable;
-    private final PointHistoryTable pointHistoryTable;
+    private final PointBalanceEngine balanceEngine;
+    private final PointHistoryStore pointHistoryStore;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final PointSummaries pointSummaries;
     private final PointValidator validator;
+    private final PointExecutors pointExecutors;
+    private final PointMetrics pointMetrics;
 
-    // 사용자별 락 저장소
-    private final ConcurrentHashMap<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+    // 같은 사용자에 대한 동시 조회는 한 번만 읽고 결과를 나눈다.
+    private final SingleFlight<UserPoint> pointReads = new SingleFlight<>();
+    private final SingleFlight<List<PointHistory>> historyReads = new SingleFlight<>();
 
-    //포인트 조회
+    //포인트 조회 (같은 사용자에 대한 동시 조회는 한 번만 읽는다)
     public UserPoint getUserPoint(long userId) {
-        UserPoint userPoint = userPointTable.selectById(userId);
+        return pointMetrics.recordService(Operation.GET, () -> pointReads.execute(userId, () -> {
+            UserPoint userPoint = balanceEngine.get(userId);
 
-        //사용자 검증
-        validator.validateUserExists(userPoint);
+            //사용자 검증
+            validator.validateUserExists(userPoint);
+
+            return userPoint;
+        }));
+    }
 
-        return userPointTable.selectById(userId);
+    //포인트 충전 (사용자 검증과 잔액 조회는 충전 임계 구역 안에서 한 번만 수행)
+    public UserPoint chargePoint(long userId, long amount) {
+        return pointMetrics.recordService(Operation.CHARGE,
+                () -> write(userId, () -> balanceEngine.charge(userId, amount, userExists(Operation.CHARGE))));
     }
 
-    //포인트 충전
+    //포인트 사용 (사용자 검증과 잔액 조회는 사용 임계 구역 안에서 한 번만 수행)
+    public UserPoint usePoint(long userId, long amount) {
+        return pointMetrics.recordService(Operation.USE,
+                () -> write(userId, () -> balanceEngine.use(userId, amount, userExists(Operation.USE))));
+    }
+
+    /**
+     * @deprecated 호출 전에 잔액을 따로 조회해야 하므로 {@link #chargePoint(long, long)} 를 사용한다.
+     */
+    @Deprecated
     public UserPoint chargePoint(UserPoint current, long amount) {
-        validator.validateUserExists(current);
+        userExists(Operation.CHARGE).accept(current);
+        return chargePoint(current.id(), amount);
+    }
 
-        long userId = current.id();
-        // 락 획득 또는 생성
-        ReentrantLock lock = locks.computeIfAbsent(userId, id -> new ReentrantLock());
-        lock.lock(); // 락 시작
-        try {
-            UserPoint userPoint = userPointTable.selectById(current.id());
-            UserPoint charged = UserPoint.charge(userPoint, amount);
+    /**
+     * @deprecated 호출 전에 잔액을 따로 조회해야 하므로 {@link #usePoint(long, long)} 를 사용한다.
+     */
+    @Deprecated
+    public UserPoint usePoint(UserPoint current, long amount) {
+        userExists(Operation.USE).accept(current);
+        return usePoint(current.id(), amount);
+    }
 
-            userPointTable.insertOrUpdate(charged.id(), charged.point());
-            pointHistoryTable.insert(charged.id(), amount, TransactionType.CHARGE, System.currentTimeMillis());
-            return charged;
-        } finally {
-            lock.unlock(); // 락 해제
+    //사용자 검증 (검증 시간을 요청 종류별로 측정)
+    private Consumer<UserPoint> userExists(Operation operation) {
+        return userPoint -> pointMetrics.recordValidation(operation, () -> validator.validateUserExists(userPoint));
+    }
+
+    //포인트 내역 조회 (같은 사용자에 대한 동시 조회는 한 번만 읽는다)
+    public List<PointHistory> getPointHistories(long userId) {
+        return pointMetrics.recordService(Operation.HISTORIES, () -> historyReads.execute(userId, () -> {
+            UserPoint userPoint = balanceEngine.get(userId);
+            //사용자 검증
+            validator.validateUserExists(userPoint);
+
+            // 아직 대기열에 남아있는 내역까지 조회되도록 먼저 적재
+            pointHistoryWriter.flushForRead(userId);
+            List<PointHistory> pointHistories = pointHistoryStore.selectAllByUserId(userId);
+
+            //히스토리 검증
+            validator.validateHistoryExists(pointHistories);
+
+            return pointHistories;
+        }));
+    }
+
+    //포인트 내역 요약 조회 (내역을 읽지 않고 미리 집계한 값 반환)
+    public PointSummary getPointSummary(long userId) {
+        return pointMetrics.recordService(Operation.SUMMARY, () -> {
+            UserPoint userPoint = balanceEngine.get(userId);
+            //사용자 검증
+            validator.validateUserExists(userPoint);
+
+            // 아직 대기열에 남아있는 내역까지 집계되도록 먼저 적재
+            pointHistoryWriter.flushForRead(userId);
+            return pointSummaries.get(userId);
+        });
+    }
+
+    //포인트 내역 페이지 조회
+    public PointHistoryPage getPointHistoryPage(long userId, PointHistoryQuery query) {
+        return pointMetrics.recordService(Operation.HISTORY_PAGE, () -> findPointHistoryPage(userId, query));
+    }
+
+    private PointHistoryPage findPointHistoryPage(long userId, PointHistoryQuery query) {
+        validator.validateHistoryQuery(query);
+
+        UserPoint userPoint = balanceEngine.get(userId);
+        //사용자 검증
+        validator.validateUserExists(userPoint);
+
+        pointHistoryWriter.flushForRead(userId);
+        // 다음 페이지가 있는지 알기 위해 한 건 더 조회
+        List<PointHistory> rows = pointHistoryStore.selectByUserIdAfter(userId, query.afterId(), query.limit() + 1, query::matches);
+        if (rows.size() <= query.limit()) {
+            return new PointHistoryPage(rows, null);
         }
+
+        List<PointHistory> histories = rows.subList(0, query.limit());
+        return new PointHistoryPage(histories, histories.get(histories.size() - 1).id());
     }
 
-    //포인트 사용
-    public UserPoint usePoint(UserPoint current, long amount) {
-        validator.validateUserExists(current);
+    //처리 중인 같은 사용자의 조회에 합쳐진 포인트 조회 수
+    public long coalescedPointReads() {
+        return pointReads.coalescedCount();
+    }
+
+    //처리 중인 같은 사용자의 조회에 합쳐진 내역 조회 수
+    public long coalescedHistoryReads() {
+        return historyReads.coalescedCount();
+    }
+
+    //포인트 조회 (비동기)
+    public CompletableFuture<UserPoint> getUserPointAsync(long userId) {
+        return async(Operation.GET, () -> getUserPoint(userId));
+    }
+
+    //포인트 충전 (비동기)
+    public CompletableFuture<UserPoint> chargePointAsync(long userId, long amount) {
+        return async(Operation.CHARGE, () -> chargePoint(userId, amount));
+    }
+
+    //포인트 사용 (비동기)
+    public CompletableFuture<UserPoint> usePointAsync(long userId, long amount) {
+        return async(Operation.USE, () -> usePoint(userId, amount));
+    }
+
+    //포인트 내역 조회 (비동기)
+    public CompletableFuture<List<PointHistory>> getPointHistoriesAsync(long userId) {
+        return async(Operation.HISTORIES, () -> getPointHistories(userId));
+    }
+
+    //포인트 일괄 충전/사용
+    public List<PointOperationResult> applyBatch(List<PointOperation> operations) {
+        return applyBatch(operations, operation -> {
+        });
+    }
+
+    /**
+     * 요청마다 admission 을 먼저 호출하고, PointException 이 발생한 요청은 반영하지 않고 그 code 로 실패 처리한다. (요청 수 제한 등)
+     */
+    public List<PointOperationResult> applyBatch(List<PointOperation> operations, Consumer<PointOperation> admission) {
+        return pointMetrics.recordService(Operation.BATCH, () -> applyOperations(operations, admission));
+    }
 
-        long userId = current.id();
-        // 락 획득 또는 생성
-        ReentrantLock lock = locks.computeIfAbsent(userId, id -> new ReentrantLock());
-        lock.lock(); // 락 시작
+    private List<PointOperationResult> applyOperations(List<PointOperation> operations, Consumer<PointOperation> admission) {
+        validator.validateBatch(operations);
+
+        // 사용자별로 묶되, 같은 사용자의 요청 순서는 유지
+        Map<Long, List<Integer>> indexesByUser = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            indexesByUser.computeIfAbsent(operations.get(i).userId(), id -> new ArrayList<>()).add(i);
+        }
+
+        // 사용자별 작업은 서로 다른 락을 사용하므로 병렬로 처리
+        PointOperationResult[] results = new PointOperationResult[operations.size()];
+        CompletableFuture<?>[] futures = indexesByUser.entrySet().stream()
+                .map(entry -> CompletableFuture.runAsync(
+                        () -> applyUserOperations(entry.getKey(), entry.getValue(), operations, admission, results),
+                        pointExecutors.batch()))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 요청 실행기에서 작업을 실행한다.
+     * - 실행기 대기열이 가득 차면 REQUEST_QUEUE_FULL 로 바로 실패한다.
+     * - requestTimeout 안에 시작하지 못하면 대기열에서 꺼내고 REQUEST_TIMEOUT 으로 실패한다.
+     *   실행을 시작한 작업은 결과가 나올 때까지 기다린다. 이미 반영된 충전/사용을 실패로 응답하면
+     *   클라이언트가 다시 시도해서 두 번 반영되기 때문이다.
+     */
+    private <T> CompletableFuture<T> async(Operation operation, Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // 작업 시작과 시간 초과 중 먼저 완료한 쪽만 진행한다.
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Runnable task = () -> {
+            if (!started.complete(null)) {
+                return;
+            }
+            try {
+                result.complete(call.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
         try {
-            UserPoint userPoint = userPointTable.selectById(current.id());
-            UserPoint used = UserPoint.use(userPoint, amount);
+            pointExecutors.requests().execute(task);
+        } catch (RejectedExecutionException e) {
+            pointMetrics.rejected(operation, "REQUEST_QUEUE_FULL");
+            return CompletableFuture.failedFuture(new PointException("REQUEST_QUEUE_FULL", "처리 대기 중인 요청이 너무 많습니다."));
+        }
 
-            userPointTable.insertOrUpdate(used.id(), used.point());
-            pointHistoryTable.insert(used.id(), amount, TransactionType.USE, System.currentTimeMillis());
+        started.orTimeout(pointExecutors.requestTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, e) -> {
+                    if (e == null) {
+                        return;
+                    }
+                    // 대기열 자리를 바로 비운다.
+                    pointExecutors.cancel(task);
+                    pointMetrics.rejected(operation, "REQUEST_TIMEOUT");
+                    result.completeExceptionally(new PointException("REQUEST_TIMEOUT", "요청 처리 시간이 초과되었습니다."));
+                });
+        return result;
+    }
 
-            return used;
+    // 쓰기가 끝난 뒤 시작하는 조회가 쓰기 전에 시작한 조회 결과를 받지 않도록 처리 중인 조회를 잊는다.
+    private <T> T write(long userId, Supplier<T> call) {
+        try {
+            return call.get();
         } finally {
-            lock.unlock(); // 락 해제
+            pointReads.forget(userId);
+            historyReads.forget(userId);
         }
     }
 
-    //포인트 내역 조회
-    public List<PointHistory> getPointHistories(long userId) {
-        UserPoint userPoint = userPointTable.selectById(userId);
-        //사용자 검증
-        validator.validateUserExists(userPoint);
+    private void applyUserOperations(long userId, List<Integer> indexes, List<PointOperation> operations,
+                                     Consumer<PointOperation> admission, PointOperationResult[] results) {
+        PointOperationResult[] userResults = new PointOperationResult[indexes.size()];
 
-        List<PointHistory> pointHistories = pointHistoryTable.selectAllByUserId(userId);
+        // 받아들이지 않은 요청은 반영하지 않고 바로 실패 처리
+        List<Integer> admitted = new ArrayList<>();
+        for (int i = 0; i < indexes.size(); i++) {
+            PointOperation operation = operations.get(indexes.get(i));
+            try {
+                admission.accept(operation);
+                admitted.add(i);
+            } catch (PointException e) {
+                userResults[i] = PointOperationResult.failure(operation, e);
+            }
+        }
 
-        //히스토리 검증
-        validator.validateHistoryExists(pointHistories);
+        if (!admitted.isEmpty()) {
+            List<PointOperation> userOperations = admitted.stream().map(i -> operations.get(indexes.get(i))).toList();
+            List<PointOperationResult> applied;
+            try {
+                //사용자 검증
+                validator.validateUserExists(balanceEngine.get(userId));
+                applied = write(userId, () -> balanceEngine.applyAll(userId, userOperations));
+            } catch (PointException e) {
+                applied = userOperations.stream().map(operation -> PointOperationResult.failure(operation, e)).toList();
+            }
+            for (int i = 0; i < admitted.size(); i++) {
+                userResults[admitted.get(i)] = applied.get(i);
+            }
+        }
 
-        return pointHistories;
+        for (int i = 0; i < indexes.size(); i++) {
+            PointOperationResult result = userResults[i];
+            if (!result.success()) {
+                pointMetrics.rejected(Operation.BATCH, result.code());
+            }
+            results[indexes.get(i)] = result;
+        }
     }
 }
@@ -0,0 +1,65 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 사용자별 내역 요약을 내역이 저장될 때마다 함께 갱신한다.
+ * 갱신은 PointHistoryWriter 가 저장소에 내역을 넣는 임계 구역(flushLock) 안에서만 하므로 쓰기 스레드는 항상 하나이고,
+ * 요약은 불변 객체를 교체하므로 조회는 락 없이 O(1) 이다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PointSummaries {
+
+    private static final Logger log = LoggerFactory.getLogger(PointSummaries.class);
+    private static final int PAGE_SIZE = 1000;
+
+    private final PointHistoryStore pointHistoryStore;
+    private final ConcurrentHashMap<Long, PointSummary> summaries = new ConcurrentHashMap<>();
+
+    /**
+     * 저장소에 이미 있는 내역으로 요약을 다시 만든다. (파일 저장소처럼 재시작 후에도 내역이 남는 경우)
+     * PointHistoryWriter 가 이 컴포넌트에 의존하므로 내역 적재가 시작되기 전에 실행된다.
+     */
+    @PostConstruct
+    public void rebuild() {
+        summaries.clear();
+        long rows = 0;
+        try (Stream<Long> userIds = pointHistoryStore.selectUserIds()) {
+            for (Long userId : (Iterable<Long>) userIds::iterator) {
+                long afterId = 0L;
+                List<PointHistory> page;
+                do {
+                    page = pointHistoryStore.selectByUserIdAfter(userId, afterId, PAGE_SIZE, pointHistory -> true);
+                    for (PointHistory pointHistory : page) {
+                        record(pointHistory.userId(), pointHistory.type(), pointHistory.amount(), pointHistory.updateMillis());
+                    }
+                    if (!page.isEmpty()) {
+                        afterId = page.get(page.size() - 1).id();
+                    }
+                    rows += page.size();
+                } while (page.size() == PAGE_SIZE);
+            }
+        }
+        log.info("point summaries rebuilt. users={}, rows={}", summaries.size(), rows);
+    }
+
+    // 내역 저장 직후 호출한다.
+    void record(long userId, TransactionType type, long amount, long updateMillis) {
+        summaries.compute(userId, (id, summary) -> (summary == null ? PointSummary.empty(id) : summary).add(type, amount, updateMillis));
+    }
+
+    public PointSummary get(long userId) {
+        PointSummary summary = summaries.get(userId);
+        return summary == null ? PointSummary.empty(userId) : summary;
+    }
+}
@@ -0,0 +1,30 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 사용자별 포인트 내역 요약
+ * - totalCharged / totalUsed : 누적 충전 / 사용 금액
+ * - transactionCount : 내역 수
+ * - lastActivityMillis : 마지막 내역의 시각 (내역이 없으면 0)
+ */
+public record PointSummary(
+        long userId,
+        long totalCharged,
+        long totalUsed,
+        long transactionCount,
+        long lastActivityMillis
+) {
+
+    public static PointSummary empty(long userId) {
+        return new PointSummary(userId, 0, 0, 0, 0);
+    }
+
+    public PointSummary add(TransactionType type, long amount, long updateMillis) {
+        return new PointSummary(
+                userId,
+                type == TransactionType.CHARGE ? totalCharged + amount : totalCharged,
+                type == TransactionType.USE ? totalUsed + amount : totalUsed,
+                transactionCount + 1,
+                Math.max(lastActivityMillis, updateMillis)
+        );
+    }
+}
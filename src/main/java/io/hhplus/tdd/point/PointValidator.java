@@ -19,5 +19,27 @@ public class PointValidator {
         }
     }
 
+    public void validateHistoryQuery(PointHistoryQuery query) {
+        if (query.limit() < 1 || query.limit() > PointHistoryQuery.MAX_LIMIT) {
+            throw new PointException("INVALID_PAGE_LIMIT", "조회 건수는 1 이상 " + PointHistoryQuery.MAX_LIMIT + " 이하이어야 합니다.");
+        }
+
+        if (query.from() != null && query.to() != null && query.from() > query.to()) {
+            throw new PointException("INVALID_PERIOD", "조회 시작 시각이 종료 시각보다 늦을 수 없습니다.");
+        }
+    }
+
+    public void validateBatch(List<PointOperation> operations) {
+        if (operations == null || operations.isEmpty() || operations.size() > PointOperation.MAX_BATCH_SIZE) {
+            throw new PointException("INVALID_BATCH_SIZE", "일괄 처리 요청은 1건 이상 " + PointOperation.MAX_BATCH_SIZE + "건 이하이어야 합니다.");
+        }
+
+        for (PointOperation operation : operations) {
+            if (operation == null || operation.type() == null) {
+                throw new PointException("INVALID_OPERATION", "충전/사용 구분이 없는 요청이 있습니다.");
+            }
+        }
+    }
+
 
 }
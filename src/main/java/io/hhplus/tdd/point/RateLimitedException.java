@@ -0,0 +1,24 @@
+package io.hhplus.tdd.point;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * 요청 수 제한에 걸린 요청. retryAfter 뒤에 다시 보내면 받아들여진다.
+ */
+@Getter
+public class RateLimitedException extends PointException {
+    private final Duration retryAfter;
+
+    public RateLimitedException(Duration retryAfter) {
+        super("TOO_MANY_REQUESTS", "요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        this.retryAfter = retryAfter;
+    }
+
+    // 부하가 몰릴 때 대량으로 발생하고 호출 위치는 쓰지 않으므로 stack trace 를 만들지 않는다.
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
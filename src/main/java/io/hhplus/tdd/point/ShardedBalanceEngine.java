@@ -0,0 +1,519 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static io.hhplus.tdd.point.PointMetrics.TableCall.USER_POINT_SELECT;
+import static io.hhplus.tdd.point.PointMetrics.TableCall.USER_POINT_UPSERT;
+
+/**
+ * 사용자를 샤드로 나누고, 샤드마다 하나의 스레드만 잔액을 변경하는 엔진.
+ * 요청 스레드는 사용자 샤드의 대기열(lock-free MPSC)에 명령을 넣고 CompletableFuture 로 결과를 기다린다.
+ * 한 사용자의 잔액은 항상 같은 스레드가 변경하므로 락이 필요 없다.
+ * CAS 엔진과 마찬가지로 메모리상의 잔액이 원본이며, 테이블에는 백그라운드 스레드가 최신 잔액만 반영한다.
+ *
+ * 샤드 스레드는 한 사용자 때문에 같은 샤드의 다른 사용자가 기다리지 않도록 블로킹 호출을 하지 않는다.
+ * 처음 요청된 사용자의 잔액은 가상 스레드에서 읽어오고, 그동안 그 사용자의 명령만 따로 모아 두었다가 순서대로 처리한다.
+ * 내역은 대기열에 자리가 없으면 기다리지 않고 거절한다.
+ *
+ * 존재하지 않는 사용자의 빈 잔액은 남겨두지 않고, 테이블에 반영된 뒤 idleTimeout 동안 변경되지 않은 잔액은 제거한다.
+ * 제거도 사용자가 속한 샤드 스레드가 하므로, 제거와 변경이 겹치지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.engine.type", havingValue = "sharded")
+public class ShardedBalanceEngine implements PointBalanceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedBalanceEngine.class);
+
+    private final UserPointTable userPointTable;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final ShardedBalanceEngineProperties properties;
+    private final PointMetrics pointMetrics;
+
+    // 사용자별 잔액 (원본), 사용자가 속한 샤드 스레드만 변경하고 제거한다.
+    private final ConcurrentHashMap<Long, Balance> balances = new ConcurrentHashMap<>();
+    // 테이블 반영이 필요한 사용자
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Shard[] shards;
+    // 처음 요청된 사용자의 잔액을 읽는 실행기, 읽는 동안 블로킹되므로 가상 스레드를 사용한다.
+    private final ExecutorService loader = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("point-shard-loader-", 1).factory());
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public ShardedBalanceEngine(UserPointTable userPointTable,
+                                PointHistoryWriter pointHistoryWriter,
+                                ShardedBalanceEngineProperties properties,
+                                PointMetrics pointMetrics) {
+        this.userPointTable = userPointTable;
+        this.pointHistoryWriter = pointHistoryWriter;
+        this.properties = properties;
+        this.pointMetrics = pointMetrics;
+        this.shards = new Shard[properties.shardCount()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].start("point-shard-" + i);
+        }
+        Thread thread = new Thread(this::runWriter, "point-balance-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public UserPoint get(long userId) {
+        Balance balance = balances.get(userId);
+        if (balance != null) {
+            return balance.current;
+        }
+        // 아직 샤드가 읽어오지 않은 사용자는 테이블 값이 최신이다.
+        return pointMetrics.recordTable(USER_POINT_SELECT, () -> userPointTable.selectById(userId));
+    }
+
+    @Override
+    public UserPoint charge(long userId, long amount, Consumer<UserPoint> precondition) {
+        return applyOne(new PointOperation(userId, TransactionType.CHARGE, amount), precondition);
+    }
+
+    @Override
+    public UserPoint use(long userId, long amount, Consumer<UserPoint> precondition) {
+        return applyOne(new PointOperation(userId, TransactionType.USE, amount), precondition);
+    }
+
+    // 한 사용자의 요청을 하나의 명령으로 보내서 샤드가 한 번에 처리하도록 한다.
+    @Override
+    public List<PointOperationResult> applyAll(long userId, List<PointOperation> operations) {
+        return await(submit(userId, operations, NO_PRECONDITION));
+    }
+
+    /**
+     * 변경된 잔액을 테이블에 반영한다.
+     * 반영 도중 다시 변경된 사용자는 dirty 에 다시 등록되므로 다음 반영 때 최신 값이 쓰인다.
+     */
+    public void writeThrough() {
+        writeLock.lock();
+        try {
+            Iterator<Long> iterator = dirty.iterator();
+            while (iterator.hasNext()) {
+                Long userId = iterator.next();
+                iterator.remove();
+                Balance balance = balances.get(userId);
+                // 제거된 잔액은 이미 반영된 값이다.
+                if (balance == null) {
+                    continue;
+                }
+                UserPoint latest = balance.current;
+                pointMetrics.recordTable(USER_POINT_UPSERT, () -> userPointTable.insertOrUpdate(userId, latest.point()));
+                balance.written = latest;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 테이블에 반영된 뒤 idleTimeout 동안 변경되지 않은 잔액을 메모리에서 제거하도록 각 샤드에 요청한다.
+     * 후보만 골라서 보내고, 제거할지는 샤드 스레드가 다시 확인한다.
+     */
+    public void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - properties.idleTimeout().toMillis();
+        List<List<Long>> candidates = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            candidates.add(new ArrayList<>());
+        }
+        for (Map.Entry<Long, Balance> entry : balances.entrySet()) {
+            if (entry.getValue().idle(idleBefore)) {
+                candidates.get(shardIndex(entry.getKey())).add(entry.getKey());
+            }
+        }
+        for (int i = 0; i < shards.length; i++) {
+            if (!candidates.get(i).isEmpty()) {
+                shards[i].evict(new Evict(candidates.get(i), idleBefore));
+            }
+        }
+    }
+
+    // 메모리에 있는 사용자 수
+    public int size() {
+        return balances.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        // 샤드는 대기열에 남은 명령을 모두 처리한 뒤 종료한다.
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(properties.writeInterval().toMillis() + 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        loader.shutdown();
+        // 종료 전에 남은 잔액을 모두 반영
+        writeThrough();
+    }
+
+    private UserPoint applyOne(PointOperation operation, Consumer<UserPoint> precondition) {
+        PointOperationResult result = await(submit(operation.userId(), List.of(operation), precondition)).get(0);
+        if (!result.success()) {
+            throw new PointException(result.code(), result.message());
+        }
+        return result.userPoint();
+    }
+
+    private Command submit(long userId, List<PointOperation> operations, Consumer<UserPoint> precondition) {
+        if (!running) {
+            throw new IllegalStateException("샤드 잔액 엔진이 실행 중이 아닙니다.");
+        }
+        Command command = new Command(userId, operations, precondition);
+        Shard shard = shards[shardIndex(userId)];
+        shard.send(command);
+        // 넣는 사이에 종료되어 샤드가 대기열을 비운 뒤라면, 처리될 수 없으므로 다시 꺼내서 실패 처리한다.
+        if (!running && shard.withdraw(command)) {
+            command.result().completeExceptionally(new IllegalStateException("샤드 잔액 엔진이 종료되었습니다."));
+        }
+        return command;
+    }
+
+    /**
+     * commandTimeout 안에 처리를 시작하지 못한 명령은 취소하고 REQUEST_TIMEOUT 으로 실패한다.
+     * 이미 처리를 시작한 명령은 샤드 스레드가 블로킹되지 않으므로 끝날 때까지 기다린다.
+     */
+    private List<PointOperationResult> await(Command command) {
+        try {
+            try {
+                return command.result().get(properties.commandTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (command.cancel()) {
+                    throw new PointException("REQUEST_TIMEOUT", "요청 처리 시간이 초과되었습니다.");
+                }
+                return command.result().join();
+            }
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (command.cancel()) {
+                throw new PointException("REQUEST_TIMEOUT", "요청 처리 시간이 초과되었습니다.");
+            }
+            return command.result().join();
+        }
+    }
+
+    private int shardIndex(long userId) {
+        return (int) Math.floorMod(userId, (long) shards.length);
+    }
+
+    // 샤드 스레드에서만 호출한다. 락 엔진의 일괄 처리와 같이 요청마다 누적 잔액으로 검증한다.
+    private List<PointOperationResult> execute(long userId, Balance target, List<PointOperation> operations, Consumer<UserPoint> precondition) {
+        UserPoint initial = target.current;
+        List<PointOperationResult> results = new ArrayList<>(operations.size());
+        UserPoint balance = initial;
+        for (PointOperation operation : operations) {
+            try {
+                precondition.accept(balance);
+                UserPoint next = operation.applyTo(balance);
+                // 내역이 거절되면 이 요청은 실패로 처리하고 잔액에도 반영하지 않는다.
+                pointHistoryWriter.tryAppend(userId, operation.amount(), operation.type(), next.updateMillis());
+                balance = next;
+                results.add(PointOperationResult.success(operation, next));
+            } catch (PointException e) {
+                results.add(PointOperationResult.failure(operation, e));
+            }
+        }
+
+        if (balance != initial) {
+            target.current = balance;
+            // 처음 읽어온 사용자는 변경될 때 등록한다. 반영 스레드가 찾을 수 있도록 dirty 보다 먼저 등록한다.
+            balances.putIfAbsent(userId, target);
+            dirty.add(userId);
+        }
+        return results;
+    }
+
+    private void runWriter() {
+        long nextEviction = System.nanoTime() + properties.idleTimeout().toNanos();
+        while (running) {
+            LockSupport.parkNanos(this, properties.writeInterval().toNanos());
+            try {
+                writeThrough();
+                // 전체 잔액을 훑으므로 idleTimeout 마다 한 번만 한다.
+                if (System.nanoTime() - nextEviction >= 0) {
+                    evictIdle();
+                    nextEviction = System.nanoTime() + properties.idleTimeout().toNanos();
+                }
+            } catch (RuntimeException e) {
+                log.error("point balance write-through failed", e);
+            }
+        }
+    }
+
+    // 샤드 대기열에 들어가는 메시지
+    private sealed interface Message permits Command, Loaded, Evict {
+    }
+
+    private record Command(
+            long userId,
+            List<PointOperation> operations,
+            Consumer<UserPoint> precondition,
+            CompletableFuture<List<PointOperationResult>> result,
+            AtomicBoolean claimed
+    ) implements Message {
+
+        private Command(long userId, List<PointOperation> operations, Consumer<UserPoint> precondition) {
+            this(userId, operations, precondition, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        // 샤드가 처리를 시작하기 전이면 true, 이후 샤드는 이 명령을 건너뛴다.
+        private boolean cancel() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        // 기다리던 스레드가 아직 취소하지 않았으면 true
+        private boolean start() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    // 테이블에서 읽어온 사용자 잔액 (또는 실패)
+    private record Loaded(long userId, UserPoint userPoint, RuntimeException failure) implements Message {
+    }
+
+    // 제거할 후보 사용자
+    private record Evict(List<Long> userIds, long idleBefore) implements Message {
+    }
+
+    // 사용자 잔액 (원본) 과 테이블에 마지막으로 반영한 값, current 는 샤드 스레드만 변경한다.
+    private static final class Balance {
+
+        private volatile UserPoint current;
+        private volatile UserPoint written;
+
+        private Balance(UserPoint loaded) {
+            this.current = loaded;
+            this.written = loaded;
+        }
+
+        // 테이블에 반영된 값 그대로 idleBefore 이후로 변경되지 않았으면 true
+        private boolean idle(long idleBefore) {
+            UserPoint latest = current;
+            return latest == written && latest.updateMillis() <= idleBefore;
+        }
+    }
+
+    /**
+     * 샤드 하나. 여러 요청 스레드가 넣고 샤드 스레드 하나만 꺼내는 대기열과 그 스레드로 이루어진다.
+     * 처리를 기다리는 명령 수(잔액을 읽는 동안 모아 둔 명령 포함)는 mailboxCapacity 로 제한한다.
+     * 잔액 읽기 결과(Loaded)는 제한하지 않는다.
+     */
+    private final class Shard {
+
+        private final ConcurrentLinkedQueue<Message> mailbox = new ConcurrentLinkedQueue<>();
+        // 대기열에 넣은 뒤 아직 처리하지 않은 명령 수
+        private final AtomicInteger pendingCommands = new AtomicInteger();
+        // 잔액을 읽는 중인 사용자의 명령, 샤드 스레드만 사용한다.
+        private final Map<Long, List<Command>> loading = new HashMap<>();
+        private volatile Thread thread;
+
+        private void start(String name) {
+            Thread shardThread = new Thread(this::run, name);
+            shardThread.setDaemon(true);
+            thread = shardThread;
+            shardThread.start();
+        }
+
+        private void send(Command command) {
+            if (pendingCommands.incrementAndGet() > properties.mailboxCapacity()) {
+                pendingCommands.decrementAndGet();
+                throw new PointException("REQUEST_QUEUE_FULL", "처리 대기 중인 요청이 너무 많습니다.");
+            }
+            mailbox.offer(command);
+            LockSupport.unpark(thread);
+        }
+
+        // 샤드 스레드가 처리하도록 넣는다. 대기 명령 수에는 세지 않는다.
+        private void evict(Evict evict) {
+            mailbox.offer(evict);
+            LockSupport.unpark(thread);
+        }
+
+        // 아직 꺼내지 않은 명령이면 대기열에서 제거하고 true
+        private boolean withdraw(Command command) {
+            if (mailbox.remove(command)) {
+                pendingCommands.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        private void stop() {
+            Thread shardThread = thread;
+            if (shardThread == null) {
+                return;
+            }
+            LockSupport.unpark(shardThread);
+            try {
+                shardThread.join(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            // 종료 직전에 들어온 명령은 처리되지 않으므로 기다리는 스레드가 없도록 실패 처리
+            Message message;
+            while ((message = mailbox.poll()) != null) {
+                if (message instanceof Command command) {
+                    pendingCommands.decrementAndGet();
+                    if (command.start()) {
+                        command.result().completeExceptionally(new IllegalStateException("샤드 잔액 엔진이 종료되었습니다."));
+                    }
+                }
+            }
+        }
+
+        private void run() {
+            while (true) {
+                Message message = mailbox.poll();
+                if (message == null) {
+                    // 읽는 중인 잔액이 있으면 결과가 올 때까지 기다렸다가 처리한 뒤 종료한다.
+                    if (!running && loading.isEmpty()) {
+                        return;
+                    }
+                    if (running) {
+                        LockSupport.park(this);
+                    } else {
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                    }
+                    continue;
+                }
+
+                if (message instanceof Command command) {
+                    dispatch(command);
+                } else if (message instanceof Loaded loaded) {
+                    loaded(loaded);
+                } else if (message instanceof Evict evict) {
+                    evicted(evict);
+                }
+            }
+        }
+
+        private void dispatch(Command command) {
+            // 잔액을 읽는 중이면 앞선 명령 뒤에 줄 세운다.
+            List<Command> waiting = loading.get(command.userId());
+            if (waiting != null) {
+                waiting.add(command);
+                return;
+            }
+            Balance balance = balances.get(command.userId());
+            if (balance == null) {
+                waiting = new ArrayList<>();
+                waiting.add(command);
+                loading.put(command.userId(), waiting);
+                load(command.userId());
+                return;
+            }
+            process(command, balance);
+        }
+
+        private void load(long userId) {
+            loader.execute(() -> {
+                Loaded loaded;
+                try {
+                    loaded = new Loaded(userId, pointMetrics.recordTable(USER_POINT_SELECT, () -> userPointTable.selectById(userId)), null);
+                } catch (RuntimeException e) {
+                    loaded = new Loaded(userId, null, e);
+                }
+                mailbox.offer(loaded);
+                LockSupport.unpark(thread);
+            });
+        }
+
+        private void loaded(Loaded loaded) {
+            List<Command> waiting = loading.remove(loaded.userId());
+            if (loaded.failure() != null) {
+                for (Command command : waiting) {
+                    pendingCommands.decrementAndGet();
+                    if (command.start()) {
+                        command.result().completeExceptionally(loaded.failure());
+                    }
+                }
+                return;
+            }
+            // 변경된 잔액만 execute 에서 등록된다. 존재하지 않는 사용자의 빈 잔액은 남겨두지 않는다.
+            Balance balance = new Balance(loaded.userPoint());
+            for (Command command : waiting) {
+                process(command, balance);
+            }
+            if (!balance.current.isEmpty()) {
+                balances.putIfAbsent(loaded.userId(), balance);
+            }
+        }
+
+        // 샤드 스레드만 잔액을 바꾸므로, 여기서 확인한 뒤 제거하기 전까지 잔액이 바뀌지 않는다.
+        private void evicted(Evict evict) {
+            for (Long userId : evict.userIds()) {
+                Balance balance = balances.get(userId);
+                if (balance != null && balance.idle(evict.idleBefore())) {
+                    balances.remove(userId, balance);
+                }
+            }
+        }
+
+        private void process(Command command, Balance balance) {
+            pendingCommands.decrementAndGet();
+            // 기다리던 스레드가 이미 시간 초과로 포기한 명령은 반영하지 않는다.
+            if (!command.start()) {
+                return;
+            }
+            try {
+                command.result().complete(execute(command.userId(), balance, command.operations(), command.precondition()));
+            } catch (RuntimeException e) {
+                command.result().completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 샤드 잔액 엔진 설정
+ * - shards : 샤드(처리 스레드) 수, 0 이하이면 CPU 코어 수
+ * - writeInterval : 변경된 잔액을 UserPointTable 에 반영하는 주기
+ * - mailboxCapacity : 샤드마다 처리를 기다릴 수 있는 요청 수, 넘치면 503 (REQUEST_QUEUE_FULL) 으로 거절한다.
+ * - commandTimeout : 요청이 샤드 대기열에서 기다리는 최대 시간, 넘으면 처리하지 않고 503 (REQUEST_TIMEOUT) 으로 응답한다.
+ *   이미 처리를 시작한 요청은 끝날 때까지 기다린다.
+ * - idleTimeout : 테이블에 반영된 뒤 이 시간 동안 변경되지 않은 잔액은 메모리에서 제거한다.
+ */
+@ConfigurationProperties("point.engine.sharded")
+public record ShardedBalanceEngineProperties(
+        @DefaultValue("0") int shards,
+        @DefaultValue("100ms") Duration writeInterval,
+        @DefaultValue("10000") int mailboxCapacity,
+        @DefaultValue("5s") Duration commandTimeout,
+        @DefaultValue("1m") Duration idleTimeout
+) {
+
+    public int shardCount() {
+        return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+}
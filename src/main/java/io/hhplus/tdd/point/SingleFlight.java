@@ -0,0 +1,63 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 사용자에 대한 동시 조회를 하나로 합친다.
+ * 처리 중인 조회가 있으면 새로 읽지 않고 그 결과(또는 예외)를 함께 받는다.
+ * 조회가 끝나면 바로 잊으므로 결과를 캐시하지는 않는다.
+ *
+ * 잔액이 바뀐 뒤 시작한 조회가 바뀌기 전에 시작한 조회의 결과를 받지 않도록, 쓰기 경로는 쓰기가 끝난 뒤 forget 을 호출한다.
+ */
+final class SingleFlight<T> {
+
+    private final ConcurrentHashMap<Long, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    T execute(long userId, Supplier<T> call) {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(userId, flight);
+        if (existing != null) {
+            coalescedCount.increment();
+            return join(existing);
+        }
+
+        try {
+            T result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            // forget 이후 새로 시작된 조회는 지우지 않는다.
+            inFlight.remove(userId, flight);
+        }
+    }
+
+    //이후 조회는 처리 중인 조회에 합치지 않고 새로 읽는다.
+    void forget(long userId) {
+        inFlight.remove(userId);
+    }
+
+    // 처리 중인 조회에 합쳐진 조회 수
+    long coalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    private static <T> T join(CompletableFuture<T> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // 처음 조회와 같은 예외를 그대로 던진다.
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 사용자 락 획득 정책
+ * - fair : true 이면 먼저 기다린 요청이 먼저 락을 잡는다. 처리량은 줄지만 오래 기다리는 요청이 생기지 않는다.
+ * - waitTimeout : 락을 기다리는 최대 시간, 넘으면 503 (LOCK_TIMEOUT) 으로 거절한다. 0 이면 제한 없음
+ * - maxWaiters : 한 사용자의 락을 기다릴 수 있는 요청 수, 넘으면 기다리지 않고 429 (LOCK_QUEUE_FULL) 로 거절한다. 0 이면 제한 없음
+ */
+@ConfigurationProperties("point.lock")
+public record UserLockProperties(
+        @DefaultValue("false") boolean fair,
+        @DefaultValue("0s") Duration waitTimeout,
+        @DefaultValue("0") int maxWaiters
+) {
+
+    // 제한 없이 기다리는 기본 정책
+    public static UserLockProperties unbounded() {
+        return new UserLockProperties(false, Duration.ZERO, 0);
+    }
+}
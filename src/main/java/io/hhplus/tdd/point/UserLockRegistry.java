@@ -0,0 +1,160 @@
+package io.hhplus.tdd.point;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 사용자별 락 저장소.
+ * 락을 잡고 있거나 기다리는 스레드 수를 세어서, 아무도 사용하지 않는 락은 바로 제거한다.
+ * 따라서 저장소 크기는 전체 사용자 수가 아니라 동시에 처리 중인 사용자 수만큼만 유지된다.
+ *
+ * 한 사용자에게 요청이 몰려 기다리는 스레드가 쌓이지 않도록, 기다리는 요청 수(maxWaiters)와
+ * 기다리는 시간(waitTimeout)을 넘는 요청은 PointException 으로 거절한다. (load shedding)
+ */
+@Component
+public class UserLockRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(UserLockRegistry.class);
+
+    private final boolean fair;
+    private final long waitTimeoutNanos;
+    private final int maxWaiters;
+    private final ConcurrentHashMap<Long, UserLock> locks = new ConcurrentHashMap<>();
+
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder contendedCount = new LongAdder();
+    private final LongAdder queueFullCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    public UserLockRegistry(UserLockProperties properties) {
+        this.fair = properties.fair();
+        this.waitTimeoutNanos = properties.waitTimeout().toNanos();
+        this.maxWaiters = properties.maxWaiters();
+    }
+
+    public void lock(long userId) {
+        // 참조 수 증가는 compute 안에서만 하므로 제거와 경합하지 않는다.
+        int[] shedWaiters = {-1};
+        UserLock userLock = locks.compute(userId, (id, existing) -> {
+            UserLock lock = existing != null ? existing : new UserLock(fair);
+            // 락을 잡은 스레드 1개 외에 이미 maxWaiters 개가 기다리고 있으면 거절
+            if (maxWaiters > 0 && lock.holders > maxWaiters) {
+                shedWaiters[0] = lock.holders - 1;
+                return lock;
+            }
+            lock.holders++;
+            return lock;
+        });
+        if (shedWaiters[0] >= 0) {
+            queueFullCount.increment();
+            log.debug("user lock queue full. userId={}, waiters={}", userId, shedWaiters[0]);
+            throw new PointException("LOCK_QUEUE_FULL", "같은 사용자의 요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+
+        if (!tryLock(userLock.lock)) {
+            contendedCount.increment();
+            if (!awaitLock(userLock.lock)) {
+                release(userId);
+                timeoutCount.increment();
+                log.debug("user lock wait timed out. userId={}, waiters={}", userId, userLock.lock.getQueueLength());
+                throw new PointException("LOCK_TIMEOUT", "요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.");
+            }
+        }
+        acquiredCount.increment();
+    }
+
+    public void unlock(long userId) {
+        locks.computeIfPresent(userId, (id, lock) -> {
+            lock.lock.unlock();
+            // 더 이상 사용하는 스레드가 없으면 제거
+            return --lock.holders == 0 ? null : lock;
+        });
+    }
+
+    // 사용자의 락을 기다리는 요청 수
+    public int queueDepth(long userId) {
+        UserLock lock = locks.get(userId);
+        return lock == null ? 0 : lock.lock.getQueueLength();
+    }
+
+    // 락을 기다리는 요청이 가장 많은 사용자의 대기 수
+    public int maxQueueDepth() {
+        int max = 0;
+        for (UserLock lock : locks.values()) {
+            max = Math.max(max, lock.lock.getQueueLength());
+        }
+        return max;
+    }
+
+    // 현재 저장소에 남아있는 락 수
+    public int liveLockCount() {
+        return locks.size();
+    }
+
+    // 락 획득 횟수
+    public long acquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    // 다른 스레드가 이미 락을 잡고 있어서 기다려야 했던 횟수
+    public long contendedCount() {
+        return contendedCount.sum();
+    }
+
+    // 기다리는 요청이 maxWaiters 를 넘어 거절한 횟수
+    public long queueFullCount() {
+        return queueFullCount.sum();
+    }
+
+    // waitTimeout 안에 락을 잡지 못해 거절한 횟수
+    public long timeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    // 공정 락의 tryLock() 은 기다리는 스레드를 새치기하므로 대기열 순서를 지키는 tryLock(0) 을 사용한다.
+    private boolean tryLock(ReentrantLock lock) {
+        if (!fair) {
+            return lock.tryLock();
+        }
+        try {
+            return lock.tryLock(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean awaitLock(ReentrantLock lock) {
+        if (waitTimeoutNanos <= 0) {
+            lock.lock();
+            return true;
+        }
+        try {
+            return lock.tryLock(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // 락을 잡지 못하고 포기한 경우 참조 수만 되돌린다.
+    private void release(long userId) {
+        locks.computeIfPresent(userId, (id, lock) -> --lock.holders == 0 ? null : lock);
+    }
+
+    private static final class UserLock {
+        private final ReentrantLock lock;
+        // compute 안에서만 변경된다.
+        private int holders;
+
+        private UserLock(boolean fair) {
+            this.lock = new ReentrantLock(fair);
+        }
+    }
+}
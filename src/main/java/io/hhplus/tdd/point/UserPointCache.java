@@ -0,0 +1,171 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * UserPointTable.selectById 앞에 두는 read-through 캐시.
+ * 잔액 변경은 모두 서비스의 쓰기 경로를 거치므로, 쓰기 직후 put 으로 캐시를 갱신해서 테이블과 일치시킨다.
+ * 테이블을 직접 수정하는 경우에는 evict 또는 clear 를 호출해야 한다.
+ */
+@Component
+public class UserPointCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Segment[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public UserPointCache(UserPointCacheProperties properties) {
+        this.enabled = properties.enabled();
+        this.ttlNanos = properties.ttl().toNanos();
+        int segmentCount = Math.max(1, properties.segments());
+        int segmentSize = Math.max(1, properties.maxSize() / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    //캐시 조회, 없거나 만료되었으면 loader 로 읽어서 저장
+    public UserPoint get(long userId, LongFunction<UserPoint> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+
+        Segment segment = segmentFor(userId);
+        long writeSeq;
+        segment.lock.lock();
+        try {
+            Entry entry = segment.entries.get(userId);
+            if (entry != null) {
+                if (System.nanoTime() - entry.cachedAt < ttlNanos) {
+                    hitCount.increment();
+                    return entry.userPoint;
+                }
+                segment.entries.remove(userId);
+                evictionCount.increment();
+            }
+            writeSeq = segment.writeSeq;
+        } finally {
+            segment.lock.unlock();
+        }
+
+        // 느린 테이블 조회는 락 밖에서 수행
+        missCount.increment();
+        UserPoint loaded = loader.apply(userId);
+
+        segment.lock.lock();
+        try {
+            // 읽는 사이에 같은 구간에 쓰기가 있었다면 읽은 값이 오래된 값일 수 있으므로 캐시하지 않는다.
+            if (segment.writeSeq == writeSeq) {
+                segment.entries.put(userId, new Entry(loaded, System.nanoTime()));
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        return loaded;
+    }
+
+    //쓰기 경로에서 변경된 잔액 반영
+    public void put(UserPoint userPoint) {
+        if (!enabled) {
+            return;
+        }
+
+        Segment segment = segmentFor(userPoint.id());
+        segment.lock.lock();
+        try {
+            segment.writeSeq++;
+            segment.entries.put(userPoint.id(), new Entry(userPoint, System.nanoTime()));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void evict(long userId) {
+        Segment segment = segmentFor(userId);
+        segment.lock.lock();
+        try {
+            segment.writeSeq++;
+            segment.entries.remove(userId);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.writeSeq++;
+                segment.entries.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    // 크기 초과 또는 만료로 제거된 수
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    private Segment segmentFor(long userId) {
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return segments[(int) ((hash >>> 32) % segments.length)];
+    }
+
+    private record Entry(UserPoint userPoint, long cachedAt) {
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        // 이 구간에 put/evict 가 일어날 때마다 증가한다.
+        private long writeSeq;
+        private final Map<Long, Entry> entries;
+
+        private Segment(int maxSize) {
+            // accessOrder = true 로 LRU 순서 유지
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    if (size() > maxSize) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
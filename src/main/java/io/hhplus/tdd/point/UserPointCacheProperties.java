@@ -0,0 +1,22 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 사용자 포인트 캐시 설정
+ * - enabled : false 이면 항상 UserPointTable 에서 읽는다.
+ * - maxSize : 캐시에 유지하는 최대 사용자 수. 넘으면 가장 오래 사용되지 않은 사용자부터 제거 (LRU)
+ * - ttl : 캐시에 올라간 뒤 이 시간이 지나면 다시 테이블에서 읽는다.
+ * - segments : 락 경합을 줄이기 위해 캐시를 나누는 구간 수
+ */
+@ConfigurationProperties("point.cache.user-point")
+public record UserPointCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int maxSize,
+        @DefaultValue("5s") Duration ttl,
+        @DefaultValue("16") int segments
+) {
+}
@@ -0,0 +1,10 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 잔액과 그 잔액의 버전. 잔액이 바뀔 때마다 버전이 1씩 증가한다.
+ */
+public record VersionedUserPoint(
+        UserPoint userPoint,
+        long version
+) {
+}
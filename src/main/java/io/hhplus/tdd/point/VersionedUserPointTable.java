@@ -0,0 +1,95 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.hhplus.tdd.point.PointMetrics.TableCall.USER_POINT_SELECT;
+import static io.hhplus.tdd.point.PointMetrics.TableCall.USER_POINT_UPSERT;
+
+/**
+ * UserPointTable 앞에서 사용자별 잔액 버전을 관리하고, 버전이 같을 때만 쓰는 compare-and-set 을 제공한다.
+ * 테이블은 변경하지 않으므로 버전은 메모리에 두고, 처음 접근하는 사용자는 테이블에서 읽어서 버전 0 으로 시작한다.
+ * 잔액이 없는 사용자는 처음 쓸 때까지 등록하지 않고 매번 테이블에서 읽은 값을 버전 0 으로 돌려준다.
+ *
+ * compareAndSet 은 버전을 확인하면서 그 버전을 "쓰는 중" 으로 선점한 뒤 테이블에 쓰고, 쓰기가 끝나면 다음 버전을 공개한다.
+ * 쓰는 중에는 같은 버전으로 들어온 다른 쓰기가 기다리지 않고 바로 실패하므로, 테이블 쓰기 순서는 버전 순서와 같다.
+ * 조회는 쓰는 중에도 마지막으로 확정된 잔액과 버전을 돌려준다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.engine.type", havingValue = "optimistic")
+@RequiredArgsConstructor
+public class VersionedUserPointTable {
+
+    private final UserPointTable userPointTable;
+    private final PointMetrics pointMetrics;
+    private final ConcurrentHashMap<Long, AtomicReference<Row>> rows = new ConcurrentHashMap<>();
+
+    public VersionedUserPoint selectById(long id) {
+        AtomicReference<Row> row = rows.get(id);
+        if (row != null) {
+            return row.get().committed();
+        }
+
+        // 잔액이 없는 사용자는 등록하지 않는다. 조회만 하는 요청으로 메모리가 계속 늘지 않도록, 처음 쓸 때 등록한다.
+        UserPoint loaded = load(id);
+        if (loaded.isEmpty()) {
+            return new VersionedUserPoint(loaded, 0);
+        }
+        return register(id, loaded).get().committed();
+    }
+
+    /**
+     * 현재 버전이 expectedVersion 이고 다른 쓰기가 진행 중이 아닐 때만 next 를 테이블에 쓰고 true 를 반환한다.
+     * beforeWrite 는 버전을 선점한 뒤 테이블에 쓰기 전에 호출되며, 예외가 발생하면 잔액을 바꾸지 않고 그대로 던진다.
+     */
+    public boolean compareAndSet(long id, long expectedVersion, UserPoint next, Runnable beforeWrite) {
+        AtomicReference<Row> row = row(id);
+        Row current = row.get();
+        if (current.writing() || current.committed().version() != expectedVersion) {
+            return false;
+        }
+        Row writing = new Row(current.committed(), true);
+        if (!row.compareAndSet(current, writing)) {
+            return false;
+        }
+
+        try {
+            beforeWrite.run();
+            pointMetrics.recordTable(USER_POINT_UPSERT, () -> userPointTable.insertOrUpdate(id, next.point()));
+        } catch (RuntimeException e) {
+            // 선점을 풀고 이전 잔액과 버전을 그대로 둔다.
+            row.set(current);
+            throw e;
+        }
+        row.set(new Row(new VersionedUserPoint(next, expectedVersion + 1), false));
+        return true;
+    }
+
+    private AtomicReference<Row> row(long id) {
+        AtomicReference<Row> row = rows.get(id);
+        if (row != null) {
+            return row;
+        }
+
+        return register(id, load(id));
+    }
+
+    private UserPoint load(long id) {
+        return pointMetrics.recordTable(USER_POINT_SELECT, () -> userPointTable.selectById(id));
+    }
+
+    private AtomicReference<Row> register(long id, UserPoint loaded) {
+        // 동시에 읽었다면 먼저 등록된 값을 사용한다.
+        AtomicReference<Row> created = new AtomicReference<>(new Row(new VersionedUserPoint(loaded, 0), false));
+        AtomicReference<Row> existing = rows.putIfAbsent(id, created);
+        return existing != null ? existing : created;
+    }
+
+    private record Row(VersionedUserPoint committed, boolean writing) {
+    }
+}
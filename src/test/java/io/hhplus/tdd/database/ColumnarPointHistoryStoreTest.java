@@ -0,0 +1,63 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarPointHistoryStoreTest {
+
+    private final ColumnarPointHistoryStore store = new ColumnarPointHistoryStore();
+
+    @Test
+    public void 청크_경계를_넘어도_사용자별_내역을_저장된_순서대로_조회한다() throws Exception {
+        //given
+        int rows = PointHistoryColumns.CHUNK_SIZE + 100;
+        for (long i = 1; i <= rows; i++) {
+            store.insert(i % 2 == 0 ? 2L : 1L, i, i % 3 == 0 ? TransactionType.USE : TransactionType.CHARGE, i);
+        }
+
+        //when
+        List<PointHistory> histories = store.selectAllByUserId(1L);
+
+        //then
+        assertEquals(rows / 2, histories.size());
+        for (int i = 0; i < histories.size(); i++) {
+            long id = i * 2L + 1;
+            assertEquals(new PointHistory(id, 1L, id, id % 3 == 0 ? TransactionType.USE : TransactionType.CHARGE, id), histories.get(i));
+        }
+        assertEquals(List.of(), store.selectAllByUserId(3L));
+    }
+
+    @Test
+    public void 조회한_목록은_이후에_추가된_내역의_영향을_받지_않는다() throws Exception {
+        //given
+        store.insert(1L, 1000L, TransactionType.CHARGE, 1L);
+        List<PointHistory> histories = store.selectAllByUserId(1L);
+
+        //when
+        store.insert(1L, 500L, TransactionType.USE, 2L);
+
+        //then
+        assertEquals(1, histories.size());
+        assertEquals(2, store.selectAllByUserId(1L).size());
+        assertThrows(UnsupportedOperationException.class, () -> histories.add(histories.get(0)));
+    }
+
+    @Test
+    public void afterId_이후의_내역을_필터를_적용해_최대_maxRows_건_조회한다() throws Exception {
+        //given
+        for (long i = 1; i <= 100; i++) {
+            store.insert(1L, i, i % 2 == 0 ? TransactionType.USE : TransactionType.CHARGE, i);
+        }
+
+        //when
+        List<PointHistory> page = store.selectByUserIdAfter(1L, 50L, 5, pointHistory -> pointHistory.type() == TransactionType.USE);
+
+        //then
+        assertEquals(List.of(52L, 54L, 56L, 58L, 60L), page.stream().map(PointHistory::id).toList());
+    }
+}
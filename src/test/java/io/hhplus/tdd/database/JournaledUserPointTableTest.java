@@ -0,0 +1,144 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledUserPointTableTest {
+
+    @TempDir
+    private Path directory;
+
+    private JournaledUserPointTable open() {
+        JournaledUserPointTable table = new JournaledUserPointTable(new JournaledUserPointTableProperties(
+                directory.toString(), FsyncPolicy.BATCH, Duration.ofSeconds(1), Duration.ofHours(1), 16));
+        table.open();
+        return table;
+    }
+
+    private List<String> fileNames() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    public void 스냅샷_없이_로그만으로_잔액을_복구한다() throws Exception {
+        //given
+        JournaledUserPointTable table = open();
+        table.insertOrUpdate(1L, 1000L);
+        table.insertOrUpdate(2L, 2000L);
+        UserPoint last = table.insertOrUpdate(1L, 500L);
+
+        //when
+        // 종료 처리(스냅샷) 없이 다시 연다.
+        JournaledUserPointTable.Recovery recovery = JournaledUserPointTable.recover(directory, 16);
+
+        //then
+        assertEquals(0, recovery.snapshotUsers());
+        assertEquals(3, recovery.walRecords());
+        BalanceMap balances = recovery.balances();
+        assertEquals(500L, balances.pointAt(balances.indexOf(1L)));
+        assertEquals(last.updateMillis(), balances.millisAt(balances.indexOf(1L)));
+        assertEquals(2000L, balances.pointAt(balances.indexOf(2L)));
+        table.close();
+    }
+
+    @Test
+    public void 스냅샷과_이후_로그로_잔액을_복구하고_이전_파일은_삭제한다() throws Exception {
+        //given
+        JournaledUserPointTable table = open();
+        table.insertOrUpdate(1L, 1000L);
+        table.snapshot();
+        table.insertOrUpdate(1L, 700L);
+        table.insertOrUpdate(3L, 300L);
+
+        //when
+        JournaledUserPointTable.Recovery recovery = JournaledUserPointTable.recover(directory, 16);
+
+        //then
+        assertEquals(List.of("snapshot-00000000000000000002.snap", "wal-00000000000000000002.log"), fileNames());
+        assertEquals(1, recovery.snapshotUsers());
+        assertEquals(2, recovery.walRecords());
+        assertEquals(700L, recovery.balances().pointAt(recovery.balances().indexOf(1L)));
+        table.close();
+
+        JournaledUserPointTable reopened = open();
+        assertEquals(700L, reopened.selectById(1L).point());
+        assertEquals(300L, reopened.selectById(3L).point());
+        assertEquals(0L, reopened.selectById(4L).point());
+        reopened.close();
+    }
+
+    @Test
+    public void 스냅샷을_만드는_동안_바뀐_잔액도_복구한다() throws Exception {
+        //given
+        JournaledUserPointTable table = open();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = Stream.of(0, 1, 2, 3)
+                .<Future<?>>map(writer -> executor.submit(() -> {
+                    // 쓰는 동안 맵 크기가 여러 번 늘어나도록 사용자를 계속 추가한다.
+                    for (long userId = writer * 2000L + 1; userId <= (writer + 1) * 2000L; userId++) {
+                        table.insertOrUpdate(userId, 1L);
+                        table.insertOrUpdate(userId, userId);
+                    }
+                }))
+                .toList();
+
+        //when
+        while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+            table.snapshot();
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+
+        //then
+        JournaledUserPointTable.Recovery recovery = JournaledUserPointTable.recover(directory, 16);
+        BalanceMap balances = recovery.balances();
+        assertEquals(8000, balances.size());
+        for (long userId = 1; userId <= 8000; userId++) {
+            assertEquals(userId, balances.pointAt(balances.indexOf(userId)));
+        }
+        table.close();
+    }
+
+    @Test
+    public void 쓰다가_중단된_마지막_변경은_무시하고_새_로그에_이어서_기록한다() throws Exception {
+        //given
+        Path wal = directory.resolve(BalanceWal.fileName(1));
+        try (BalanceWal writer = BalanceWal.create(wal)) {
+            writer.append(1L, 1000L, 1L);
+            writer.append(1L, 2000L, 2L);
+        }
+        // 두 번째 변경이 쓰다가 중단된 것처럼 끝을 잘라낸다.
+        try (RandomAccessFile file = new RandomAccessFile(wal.toFile(), "rw")) {
+            file.setLength(BalanceWal.RECORD_SIZE * 2L - 2);
+        }
+
+        //when
+        JournaledUserPointTable table = open();
+        UserPoint recovered = table.selectById(1L);
+        table.insertOrUpdate(1L, 3000L);
+
+        //then
+        assertEquals(new UserPoint(1L, 1000L, 1L), recovered);
+        assertTrue(Files.exists(directory.resolve(BalanceWal.fileName(2))));
+        BalanceMap balances = JournaledUserPointTable.recover(directory, 16).balances();
+        assertEquals(3000L, balances.pointAt(balances.indexOf(1L)));
+        table.close();
+    }
+}
@@ -0,0 +1,107 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedPointHistoryStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private MappedPointHistoryStore open(long segmentSize) {
+        MappedPointHistoryStore store = new MappedPointHistoryStore(new MappedPointHistoryStoreProperties(
+                directory.toString(), DataSize.ofBytes(segmentSize), FsyncPolicy.BATCH, Duration.ofSeconds(1)));
+        store.open();
+        return store;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    public void 다시_열면_저장된_내역을_그대로_조회한다() throws Exception {
+        //given
+        MappedPointHistoryStore store = open(DataSize.ofMegabytes(1).toBytes());
+        for (long i = 1; i <= 10; i++) {
+            store.insert(i % 2 == 0 ? 2L : 1L, i * 100L, TransactionType.CHARGE, i);
+        }
+        store.sync();
+        store.close();
+
+        //when
+        MappedPointHistoryStore reopened = open(DataSize.ofMegabytes(1).toBytes());
+        PointHistory next = reopened.insert(1L, 500L, TransactionType.USE, 11L);
+
+        //then
+        List<PointHistory> histories = reopened.selectAllByUserId(1L);
+        assertEquals(6, histories.size());
+        assertEquals(new PointHistory(1L, 1L, 100L, TransactionType.CHARGE, 1L), histories.get(0));
+        assertEquals(11L, next.id());
+        assertEquals(5, reopened.selectAllByUserId(2L).size());
+        reopened.close();
+    }
+
+    @Test
+    public void 세그먼트가_가득_차면_다음_세그먼트에_이어서_저장한다() throws Exception {
+        //given
+        // 세그먼트 하나에 레코드 4건
+        MappedPointHistoryStore store = open(HistorySegment.RECORD_SIZE * 4L);
+
+        //when
+        for (long i = 1; i <= 10; i++) {
+            store.insert(1L, i, TransactionType.CHARGE, i);
+        }
+
+        //then
+        assertEquals(3, segmentFiles().size());
+        assertEquals(List.of(9L, 10L), store.selectByUserIdAfter(1L, 8L, 10, pointHistory -> true)
+                .stream().map(PointHistory::id).toList());
+        store.close();
+
+        MappedPointHistoryStore reopened = open(HistorySegment.RECORD_SIZE * 4L);
+        assertEquals(10, reopened.selectAllByUserId(1L).size());
+        reopened.close();
+    }
+
+    @Test
+    public void 쓰다가_중단된_마지막_레코드는_버리고_그_위치부터_이어서_저장한다() throws Exception {
+        //given
+        MappedPointHistoryStore store = open(DataSize.ofMegabytes(1).toBytes());
+        for (long i = 1; i <= 3; i++) {
+            store.insert(1L, 1000L, TransactionType.CHARGE, i);
+        }
+        store.close();
+
+        // 세 번째 레코드의 금액을 일부만 덮어써서 crc 가 맞지 않게 만든다.
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            file.seek(HistorySegment.RECORD_SIZE * 2L + 16);
+            file.writeByte(0x7F);
+        }
+
+        //when
+        MappedPointHistoryStore reopened = open(DataSize.ofMegabytes(1).toBytes());
+        PointHistory next = reopened.insert(1L, 200L, TransactionType.USE, 4L);
+
+        //then
+        List<PointHistory> histories = reopened.selectAllByUserId(1L);
+        assertEquals(3, histories.size());
+        assertEquals(3L, next.id());
+        assertEquals(200L, histories.get(2).amount());
+        reopened.close();
+    }
+}
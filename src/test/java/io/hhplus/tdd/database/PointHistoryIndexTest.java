@@ -0,0 +1,74 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointHistoryIndexTest {
+
+    private final PointHistoryIndex index = new PointHistoryIndex();
+
+    @Test
+    public void 사용자별_내역을_추가된_순서대로_조회한다() throws Exception {
+        //given
+        for (long id = 1; id <= 100; id++) {
+            index.add(new PointHistory(id, id % 2 == 0 ? 2L : 1L, id, TransactionType.CHARGE, id));
+        }
+
+        //when
+        List<PointHistory> histories = index.findAllByUserId(1L);
+
+        //then
+        assertEquals(50, histories.size());
+        assertEquals(50, index.countByUserId(1L));
+        for (int i = 0; i < histories.size(); i++) {
+            assertEquals(i * 2L + 1, histories.get(i).id());
+            assertEquals(1L, histories.get(i).userId());
+        }
+    }
+
+    @Test
+    public void 내역이_없는_사용자는_빈_목록을_반환한다() throws Exception {
+        //given
+        index.add(new PointHistory(1L, 1L, 1000L, TransactionType.CHARGE, 1L));
+
+        //when
+        List<PointHistory> histories = index.findAllByUserId(2L);
+
+        //then
+        assertTrue(histories.isEmpty());
+    }
+
+    @Test
+    public void 조회_결과는_수정할_수_없다() throws Exception {
+        //given
+        index.add(new PointHistory(1L, 1L, 1000L, TransactionType.CHARGE, 1L));
+
+        //when
+        List<PointHistory> histories = index.findAllByUserId(1L);
+
+        //then
+        assertThrows(UnsupportedOperationException.class, () -> histories.add(histories.get(0)));
+    }
+
+    @Test
+    public void 커서_이후의_내역을_조건에_맞게_최대건수만큼_조회한다() throws Exception {
+        //given
+        for (long id = 1; id <= 40; id++) {
+            index.add(new PointHistory(id, 1L, 100L, id % 2 == 0 ? TransactionType.USE : TransactionType.CHARGE, id));
+        }
+
+        //when
+        List<PointHistory> page = index.findByUserIdAfter(1L, 10L, 3, pointHistory -> pointHistory.type() == TransactionType.USE);
+
+        //then
+        assertEquals(3, page.size());
+        assertEquals(12L, page.get(0).id());
+        assertEquals(14L, page.get(1).id());
+        assertEquals(16L, page.get(2).id());
+    }
+}
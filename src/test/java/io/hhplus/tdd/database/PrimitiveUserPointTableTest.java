@@ -0,0 +1,48 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveUserPointTableTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void 저장한_잔액을_조회하고_없는_사용자는_빈_잔액을_반환한다(boolean offHeap) throws Exception {
+        //given
+        PrimitiveUserPointTable table = new PrimitiveUserPointTable(new PrimitiveUserPointTableProperties(offHeap, 16));
+
+        //when
+        UserPoint saved = table.insertOrUpdate(1L, 1000L);
+        table.insertOrUpdate(1L, 700L);
+
+        //then
+        UserPoint found = table.selectById(1L);
+        assertEquals(700L, found.point());
+        assertTrue(found.updateMillis() >= saved.updateMillis());
+        assertEquals(UserPoint.empty(2L), table.selectById(2L));
+        assertEquals(1, table.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void 예상_사용자_수를_넘으면_크기를_늘려도_기존_잔액이_유지된다(boolean offHeap) throws Exception {
+        //given
+        PrimitiveUserPointTable table = new PrimitiveUserPointTable(new PrimitiveUserPointTableProperties(offHeap, 16));
+        long initialFootprint = table.footprint();
+
+        //when
+        for (long userId = -50_000; userId <= 50_000; userId++) {
+            table.insertOrUpdate(userId, Math.abs(userId));
+        }
+
+        //then
+        assertEquals(100_001, table.size());
+        assertTrue(table.footprint() > initialFootprint);
+        for (long userId = -50_000; userId <= 50_000; userId++) {
+            assertEquals(Math.abs(userId), table.selectById(userId).point());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CasBalanceEngineTest {
+
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private UserPointTable userPointTable;
+
+    @Mock
+    private PointHistoryWriter pointHistoryWriter;
+
+    private CasBalanceEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        // 백그라운드 반영 스레드 없이 writeThrough() 를 직접 호출해서 검증한다.
+        engine = new CasBalanceEngine(userPointTable, pointHistoryWriter,
+                new CasBalanceEngineProperties(Duration.ofMillis(100), Duration.ofMinutes(1)), new PointMetrics(new SimpleMeterRegistry()));
+    }
+
+    private Queue<Throwable> runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        Queue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    exceptions.add(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        return exceptions;
+    }
+
+    @Test
+    public void 동시_충전시_정상적으로_합산되고_내역이_한번씩_남는다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(50, () -> engine.charge(USER_ID, 100L));
+
+        //then
+        assertEquals(0, exceptions.size());
+        assertEquals(6000L, engine.get(USER_ID).point());
+        verify(pointHistoryWriter, times(50))
+                .appendBlocking(eq(USER_ID), eq(100L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    public void 동시_충전시_최대한도를_넘는_요청만_실패한다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 90_000L, 1L));
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(20, () -> engine.charge(USER_ID, 1000L));
+
+        //then
+        assertEquals(100_000L, engine.get(USER_ID).point());
+        assertEquals(10, exceptions.size());
+        for (Throwable e : exceptions) {
+            assertEquals("충전 가능한 최대 포인트는 100,000입니다.", e.getMessage());
+        }
+        verify(pointHistoryWriter, times(10))
+                .appendBlocking(eq(USER_ID), eq(1000L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    public void 동시_사용시_잔고는_0미만이_되지_않는다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(15, () -> engine.use(USER_ID, 100L));
+
+        //then
+        assertEquals(0L, engine.get(USER_ID).point());
+        assertEquals(5, exceptions.size());
+        for (Throwable e : exceptions) {
+            assertEquals("포인트가 부족합니다.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void 테이블에는_사용자별_최신_잔액만_반영된다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+        engine.charge(USER_ID, 100L);
+        engine.charge(USER_ID, 200L);
+        engine.use(USER_ID, 300L);
+
+        //when
+        engine.writeThrough();
+
+        //then
+        verify(userPointTable, times(1)).insertOrUpdate(anyLong(), anyLong());
+        verify(userPointTable).insertOrUpdate(USER_ID, 1000L);
+    }
+
+    @Test
+    public void 조회만_한_사용자와_존재하지_않는_사용자는_메모리에_남지_않는다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+        when(userPointTable.selectById(999L)).thenReturn(UserPoint.empty(999L));
+
+        //when
+        engine.get(USER_ID);
+        engine.get(999L);
+        PointException e = assertThrows(PointException.class,
+                () -> engine.charge(999L, 100L, new PointValidator()::validateUserExists));
+
+        //then
+        assertEquals("USER_NOT_FOUND", e.getCode());
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    public void 테이블에_반영된_뒤_변경되지_않은_잔액은_제거되고_다음_요청때_다시_읽는다() throws Exception {
+        //given
+        engine = new CasBalanceEngine(userPointTable, pointHistoryWriter,
+                new CasBalanceEngineProperties(Duration.ofMillis(100), Duration.ZERO), new PointMetrics(new SimpleMeterRegistry()));
+        when(userPointTable.selectById(USER_ID))
+                .thenReturn(new UserPoint(USER_ID, 1000L, 1L))
+                .thenReturn(new UserPoint(USER_ID, 1100L, 2L));
+        engine.charge(USER_ID, 100L);
+
+        //when
+        // 반영 전에는 제거되지 않는다.
+        engine.evictIdle();
+        int beforeWrite = engine.size();
+        engine.writeThrough();
+        engine.evictIdle();
+
+        //then
+        assertEquals(1, beforeWrite);
+        assertEquals(0, engine.size());
+        verify(userPointTable).insertOrUpdate(USER_ID, 1100L);
+        assertEquals(1300L, engine.charge(USER_ID, 200L).point());
+        verify(userPointTable, times(2)).selectById(USER_ID);
+    }
+}
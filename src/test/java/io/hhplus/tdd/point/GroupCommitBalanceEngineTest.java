@@ -0,0 +1,144 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitBalanceEngineTest {
+
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private PointHistoryWriter pointHistoryWriter;
+
+    private UserPointTable userPointTable;
+
+    private UserLockRegistry lockRegistry;
+
+    private GroupCommitBalanceEngine engine;
+
+    // 실제 테이블의 지연 덕분에 락을 기다리는 동안 요청이 대기열에 모인다.
+    private void setUpUser(long point) {
+        setUpUser(point, UserLockProperties.unbounded());
+    }
+
+    private void setUpUser(long point, UserLockProperties lockProperties) {
+        UserPointTable table = new UserPointTable();
+        table.insertOrUpdate(USER_ID, point);
+        userPointTable = spy(table);
+        lockRegistry = new UserLockRegistry(lockProperties);
+        engine = new GroupCommitBalanceEngine(userPointTable, pointHistoryWriter, lockRegistry,
+                new UserPointCache(new UserPointCacheProperties(true, 1000, Duration.ofSeconds(5), 4)),
+                new PointMetrics(new SimpleMeterRegistry()));
+    }
+
+    private Queue<Throwable> runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        Queue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    exceptions.add(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        return exceptions;
+    }
+
+    @Test
+    public void 동시_충전은_모아서_한번에_저장된다() throws Exception {
+        //given
+        setUpUser(1000L);
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(20, () -> engine.charge(USER_ID, 100L));
+
+        //then
+        assertEquals(0, exceptions.size());
+        assertEquals(3000L, userPointTable.selectById(USER_ID).point());
+        verify(pointHistoryWriter, times(20))
+                .append(eq(USER_ID), eq(100L), eq(TransactionType.CHARGE), anyLong());
+        verify(userPointTable, atMost(19)).insertOrUpdate(anyLong(), anyLong());
+    }
+
+    @Test
+    public void 최대한도를_넘는_요청만_실패하고_나머지는_반영된다() throws Exception {
+        //given
+        setUpUser(90_000L);
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(20, () -> engine.charge(USER_ID, 1000L));
+
+        //then
+        assertEquals(100_000L, userPointTable.selectById(USER_ID).point());
+        assertEquals(10, exceptions.size());
+        for (Throwable e : exceptions) {
+            assertEquals("충전 가능한 최대 포인트는 100,000입니다.", e.getMessage());
+        }
+        verify(pointHistoryWriter, times(10))
+                .append(eq(USER_ID), eq(1000L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    public void 요청마다_자신의_처리_결과를_받는다() throws Exception {
+        //given
+        setUpUser(1000L);
+
+        //when
+        UserPoint charged = engine.charge(USER_ID, 500L);
+        UserPoint used = engine.use(USER_ID, 300L);
+
+        //then
+        assertEquals(1500L, charged.point());
+        assertEquals(1200L, used.point());
+        PointException e = assertThrows(PointException.class, () -> engine.use(USER_ID, 5000L));
+        assertEquals("NOT_ENOUGH_AMOUNT", e.getCode());
+    }
+
+    @Test
+    public void 락을_잡지_못해_거절된_요청은_나중에도_반영되지_않는다() throws Exception {
+        //given
+        setUpUser(1000L, new UserLockProperties(false, Duration.ofMillis(50), 0));
+        // 다른 요청이 락을 오래 잡고 있는 상황
+        lockRegistry.lock(USER_ID);
+        CompletionException rejected = assertThrows(CompletionException.class,
+                () -> CompletableFuture.supplyAsync(() -> engine.charge(USER_ID, 500L)).join());
+        lockRegistry.unlock(USER_ID);
+
+        //when
+        UserPoint charged = engine.charge(USER_ID, 100L);
+
+        //then
+        assertEquals("LOCK_TIMEOUT", ((PointException) rejected.getCause()).getCode());
+        assertEquals(1100L, charged.point());
+        assertEquals(1100L, userPointTable.selectById(USER_ID).point());
+        verify(pointHistoryWriter, never())
+                .append(eq(USER_ID), eq(500L), eq(TransactionType.CHARGE), anyLong());
+    }
+}
@@ -0,0 +1,178 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private IdempotencyCache cache(int maxSize, Duration ttl) {
+        return new IdempotencyCache(new IdempotencyCacheProperties(maxSize, ttl, 1, Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void 같은_키로_다시_요청하면_실행하지_않고_처음_결과를_반환한다() throws Exception {
+        //given
+        IdempotencyCache cache = cache(100, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+        UserPoint first = cache.execute("key-1", 1L, TransactionType.CHARGE, 1000L,
+                () -> new UserPoint(1L, 1000L * calls.incrementAndGet(), 1L));
+
+        //when
+        UserPoint replayed = cache.execute("key-1", 1L, TransactionType.CHARGE, 1000L,
+                () -> new UserPoint(1L, 1000L * calls.incrementAndGet(), 2L));
+
+        //then
+        assertEquals(first, replayed);
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.replayCount());
+    }
+
+    @Test
+    public void 처리중인_같은_키의_요청은_처음_요청의_결과를_기다린다() throws Exception {
+        //given
+        IdempotencyCache cache = cache(100, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        //when
+        Future<UserPoint> first = executor.submit(() -> cache.execute("key-1", 1L, TransactionType.CHARGE, 1000L, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return new UserPoint(1L, 6000L, 1L);
+        }));
+        started.await();
+        Future<UserPoint> duplicate = executor.submit(() -> cache.execute("key-1", 1L, TransactionType.CHARGE, 1000L, () -> {
+            calls.incrementAndGet();
+            return new UserPoint(1L, 7000L, 2L);
+        }));
+        // 중복 요청이 기다리기 시작할 때까지
+        while (cache.replayCount() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        //then
+        assertEquals(6000L, first.get(5, TimeUnit.SECONDS).point());
+        assertEquals(6000L, duplicate.get(5, TimeUnit.SECONDS).point());
+        assertEquals(1, calls.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void 비동기_요청도_같은_키로_다시_요청하면_처음_결과를_반환하고_실패는_기억하지_않는다() throws Exception {
+        //given
+        IdempotencyCache cache = cache(100, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<UserPoint> pending = new CompletableFuture<>();
+        CompletableFuture<UserPoint> first = cache.executeAsync("key-1", 1L, TransactionType.CHARGE, 1000L, () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+
+        //when
+        CompletableFuture<UserPoint> duplicate = cache.executeAsync("key-1", 1L, TransactionType.CHARGE, 1000L, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(new UserPoint(1L, 7000L, 2L));
+        });
+        pending.complete(new UserPoint(1L, 6000L, 1L));
+        CompletableFuture<UserPoint> failed = cache.executeAsync("key-2", 1L, TransactionType.USE, 1000L,
+                () -> CompletableFuture.failedFuture(new PointException("REQUEST_TIMEOUT", "요청 처리 시간이 초과되었습니다.")));
+        UserPoint retried = cache.executeAsync("key-2", 1L, TransactionType.USE, 1000L,
+                () -> CompletableFuture.completedFuture(new UserPoint(1L, 5000L, 3L))).join();
+
+        //then
+        assertEquals(6000L, first.join().point());
+        assertEquals(6000L, duplicate.get(5, TimeUnit.SECONDS).point());
+        assertEquals(1, calls.get());
+        assertThrows(CompletionException.class, failed::join);
+        assertEquals(5000L, retried.point());
+    }
+
+    @Test
+    public void 같은_키를_다른_금액에_사용하면_예외발생() throws Exception {
+        //given
+        IdempotencyCache cache = cache(100, Duration.ofMinutes(1));
+        cache.execute("key-1", 1L, TransactionType.CHARGE, 1000L, () -> new UserPoint(1L, 1000L, 1L));
+
+        //when
+        PointException e = assertThrows(PointException.class,
+                () -> cache.execute("key-1", 1L, TransactionType.CHARGE, 2000L, () -> new UserPoint(1L, 3000L, 2L)));
+
+        //then
+        assertEquals("IDEMPOTENCY_KEY_REUSED", e.getCode());
+    }
+
+    @Test
+    public void 실패한_요청은_기억하지_않고_같은_키로_다시_실행한다() throws Exception {
+        //given
+        IdempotencyCache cache = cache(100, Duration.ofMinutes(1));
+        assertThrows(PointException.class, () -> cache.execute("key-1", 1L, TransactionType.USE, 1000L, () -> {
+            throw new PointException("NOT_ENOUGH_AMOUNT", "포인트 잔액이 부족합니다.");
+        }));
+
+        //when
+        UserPoint retried = cache.execute("key-1", 1L, TransactionType.USE, 1000L, () -> new UserPoint(1L, 0L, 2L));
+
+        //then
+        assertEquals(0L, retried.point());
+        assertEquals(0, cache.replayCount());
+    }
+
+    @Test
+    public void 만료되거나_최대_개수를_넘은_키는_제거된다() throws Exception {
+        //given
+        IdempotencyCache expiring = cache(100, Duration.ZERO);
+        IdempotencyCache bounded = cache(2, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        //when
+        expiring.execute("key-1", 1L, TransactionType.CHARGE, 1000L, () -> new UserPoint(1L, calls.incrementAndGet(), 1L));
+        expiring.execute("key-1", 1L, TransactionType.CHARGE, 1000L, () -> new UserPoint(1L, calls.incrementAndGet(), 1L));
+        for (int i = 0; i < 5; i++) {
+            bounded.execute("key-" + i, 1L, TransactionType.CHARGE, 1000L, () -> new UserPoint(1L, 1000L, 1L));
+        }
+
+        //then
+        assertEquals(2, calls.get());
+        assertEquals(1, expiring.size());
+        assertEquals(2, bounded.size());
+        assertEquals(3, bounded.evictionCount());
+    }
+
+    @Test
+    public void 키가_너무_길면_예외발생() throws Exception {
+        //given
+        IdempotencyCache cache = cache(100, Duration.ofMinutes(1));
+        String key = "k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1);
+
+        //when
+        PointException e = assertThrows(PointException.class,
+                () -> cache.execute(key, 1L, TransactionType.CHARGE, 1000L, () -> new UserPoint(1L, 1000L, 1L)));
+
+        //then
+        assertEquals("INVALID_IDEMPOTENCY_KEY", e.getCode());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
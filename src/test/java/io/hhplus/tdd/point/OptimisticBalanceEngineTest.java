@@ -0,0 +1,161 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticBalanceEngineTest {
+
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private UserPointTable userPointTable;
+
+    @Mock
+    private PointHistoryWriter pointHistoryWriter;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private VersionedUserPointTable versionedUserPointTable;
+
+    @BeforeEach
+    void setUp() {
+        versionedUserPointTable = new VersionedUserPointTable(userPointTable, new PointMetrics(registry));
+    }
+
+    private OptimisticBalanceEngine engine(int maxAttempts) {
+        return new OptimisticBalanceEngine(versionedUserPointTable, pointHistoryWriter,
+                new OptimisticBalanceEngineProperties(maxAttempts, Duration.ofMillis(1), Duration.ofMillis(10)),
+                new PointMetrics(registry));
+    }
+
+    private Queue<Throwable> runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        Queue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    exceptions.add(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        return exceptions;
+    }
+
+    @Test
+    public void 동시_충전시_충돌하면_다시_시도해서_모두_반영하고_버전은_변경마다_증가한다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+        OptimisticBalanceEngine engine = engine(1000);
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(20, () -> engine.charge(USER_ID, 100L));
+
+        //then
+        assertEquals(0, exceptions.size());
+        VersionedUserPoint current = versionedUserPointTable.selectById(USER_ID);
+        assertEquals(3000L, current.userPoint().point());
+        assertEquals(20, current.version());
+        verify(userPointTable).insertOrUpdate(USER_ID, 3000L);
+        verify(pointHistoryWriter, times(20))
+                .append(eq(USER_ID), eq(100L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    public void 다른_버전으로는_쓸_수_없다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+        VersionedUserPoint read = versionedUserPointTable.selectById(USER_ID);
+        assertTrue(versionedUserPointTable.compareAndSet(USER_ID, read.version(), new UserPoint(USER_ID, 1100L, 2L), () -> {
+        }));
+
+        //when
+        boolean stale = versionedUserPointTable.compareAndSet(USER_ID, read.version(), new UserPoint(USER_ID, 900L, 3L), () -> {
+        });
+
+        //then
+        assertFalse(stale);
+        assertEquals(new VersionedUserPoint(new UserPoint(USER_ID, 1100L, 2L), 1), versionedUserPointTable.selectById(USER_ID));
+        verify(userPointTable, never()).insertOrUpdate(USER_ID, 900L);
+    }
+
+    @Test
+    public void 최대_시도_횟수까지_충돌하면_예외발생() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+        OptimisticBalanceEngine engine = engine(3);
+        // 검증할 때마다 다른 요청이 먼저 변경한 것처럼 버전을 올린다.
+        Runnable concurrentWrite = () -> {
+            VersionedUserPoint current = versionedUserPointTable.selectById(USER_ID);
+            versionedUserPointTable.compareAndSet(USER_ID, current.version(), current.userPoint(), () -> {
+            });
+        };
+
+        //when
+        PointException e = assertThrows(PointException.class,
+                () -> engine.charge(USER_ID, 100L, userPoint -> concurrentWrite.run()));
+
+        //then
+        assertEquals("CONCURRENT_UPDATE", e.getCode());
+        assertEquals(3.0, registry.get("point.optimistic.conflicts").tag("operation", "charge").counter().count());
+        verifyNoInteractions(pointHistoryWriter);
+    }
+
+    @Test
+    public void 내역이_거절되면_잔액과_버전은_바뀌지_않는다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+        doThrow(new PointException("HISTORY_QUEUE_FULL", "포인트 내역 저장 대기열이 가득 찼습니다."))
+                .when(pointHistoryWriter).append(eq(USER_ID), eq(100L), eq(TransactionType.USE), anyLong());
+        OptimisticBalanceEngine engine = engine(3);
+
+        //when
+        assertThrows(PointException.class, () -> engine.use(USER_ID, 100L));
+
+        //then
+        assertEquals(new VersionedUserPoint(new UserPoint(USER_ID, 1000L, 1L), 0), versionedUserPointTable.selectById(USER_ID));
+        verify(userPointTable, never()).insertOrUpdate(anyLong(), anyLong());
+    }
+
+    @Test
+    public void 잔액이_없는_사용자는_조회해도_등록되지_않고_처음_쓸_때_등록된다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(UserPoint.empty(USER_ID));
+        OptimisticBalanceEngine engine = engine(3);
+
+        //when
+        engine.get(USER_ID);
+        engine.get(USER_ID);
+        UserPoint charged = engine.charge(USER_ID, 100L);
+
+        //then
+        // 등록되지 않았으므로 조회할 때마다 테이블에서 읽고, 충전하면서 등록된 뒤에는 다시 읽지 않는다.
+        assertEquals(100L, charged.point());
+        assertEquals(new VersionedUserPoint(charged, 1), versionedUserPointTable.selectById(USER_ID));
+        verify(userPointTable, times(4)).selectById(USER_ID);
+        verify(userPointTable).insertOrUpdate(USER_ID, 100L);
+    }
+}
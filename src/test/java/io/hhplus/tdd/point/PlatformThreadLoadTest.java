@@ -0,0 +1,17 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=false"
+)
+class PlatformThreadLoadTest extends PointApiLoadTestSupport {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
@@ -0,0 +1,155 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 플랫폼 스레드 / 가상 스레드 모드의 처리량 비교용 부하 테스트 공통 로직.
+ * 동시 클라이언트 수만큼 요청을 동시에 보내면서 일정 시간 동안 조회 / 충전 1 / 사용 1 을 번갈아 호출하고, 초당 요청 수와 p99 를 로그로 남긴다.
+ * 캐시를 꺼서 요청마다 UserPointTable 의 throttle(조회 최대 200ms, 저장 최대 300ms)을 그대로 받도록 해 블로킹 I/O 상황을 재현한다.
+ * 같은 사용자의 동시 조회는 SingleFlight 로 합쳐지므로, 사용자를 1,000 명으로 늘리고(사용자당 클라이언트 1~10 명) 충전/사용을 섞어 합쳐지는 비율을 낮춘다.
+ * 충전/사용이 429 로 거절되지 않도록 요청 수 제한은 끈다. 사용자 준비(저장 throttle 을 차례로 받음)에 몇 분 걸린다.
+ * 실행 : ./gradlew test --tests '*ThreadLoadTest' -Dbenchmark=true (10k 클라이언트는 ulimit -n 을 충분히 늘려야 한다.)
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        "point.cache.user-point.enabled=false",
+        "point.rate-limit.enabled=false",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000"
+})
+abstract class PointApiLoadTestSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(PointApiLoadTestSupport.class);
+
+    private static final int USERS = 1_000;
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration MEASURE = Duration.ofSeconds(30);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserPointTable userPointTable;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    protected abstract String mode();
+
+    @BeforeAll
+    void seed() {
+        for (long userId = 1; userId <= USERS; userId++) {
+            userPointTable.insertOrUpdate(userId, 1000L);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000})
+    void 동시_클라이언트_수에_따른_처리량(int clients) throws Exception {
+        run(clients, WARM_UP);
+        Result result = run(clients, MEASURE);
+
+        log.info("mode={} clients={} requests={} rps={} p99={}ms errors={}",
+                mode(), clients, result.requests(), result.requests() / MEASURE.toSeconds(),
+                result.p99Millis(), result.errors());
+    }
+
+    private Result run(int clients, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<ClientResult>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                long userId = i % USERS + 1;
+                int offset = i / USERS;
+                futures.add(executor.submit(() -> runClient(userId, offset, deadline)));
+            }
+
+            long requests = 0;
+            long errors = 0;
+            List<long[]> latencies = new ArrayList<>(clients);
+            for (Future<ClientResult> future : futures) {
+                ClientResult clientResult = future.get();
+                requests += clientResult.count();
+                errors += clientResult.errors();
+                latencies.add(Arrays.copyOf(clientResult.latencies(), clientResult.count()));
+            }
+            return new Result(requests, errors, percentile(latencies, 0.99));
+        }
+    }
+
+    // 조회 -> 충전 1 -> 사용 1 을 반복해 잔액은 그대로 두고, 같은 사용자의 클라이언트끼리는 시작 순서를 엇갈리게 한다.
+    private ClientResult runClient(long userId, int offset, long deadline) {
+        String uri = "http://localhost:" + port + "/point/" + userId;
+        HttpRequest[] requests = {
+                HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET().build(),
+                patch(uri + "/charge"),
+                patch(uri + "/use")
+        };
+        long[] latencies = new long[256];
+        int count = 0;
+        long errors = 0;
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = requests[(count + offset) % requests.length];
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors++;
+                }
+            } catch (Exception e) {
+                errors++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return new ClientResult(latencies, count, errors);
+    }
+
+    private static HttpRequest patch(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("1"))
+                .build();
+    }
+
+    private static long percentile(List<long[]> latencies, double percentile) {
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(all.length - 1, Math.ceil(all.length * percentile) - 1);
+        return Duration.ofNanos(all[index]).toMillis();
+    }
+
+    private record ClientResult(long[] latencies, int count, long errors) {
+    }
+
+    private record Result(long requests, long errors, long p99Millis) {
+    }
+}
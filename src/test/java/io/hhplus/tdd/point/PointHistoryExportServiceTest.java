@@ -0,0 +1,93 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.ColumnarPointHistoryStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PointHistoryExportServiceTest {
+
+    @Mock
+    private PointBalanceEngine balanceEngine;
+
+    @Mock
+    private PointHistoryWriter pointHistoryWriter;
+
+    private final ColumnarPointHistoryStore pointHistoryStore = new ColumnarPointHistoryStore();
+
+    private PointHistoryExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new PointHistoryExportService(balanceEngine, pointHistoryStore, pointHistoryWriter, new PointValidator());
+    }
+
+    private List<String> lines(PointHistoryExport export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        return Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\n"));
+    }
+
+    @Test
+    public void 사용자_내역을_페이지_크기보다_많아도_모두_NDJSON으로_내보낸다() throws Exception {
+        //given
+        int rows = PointHistoryExportService.PAGE_SIZE * 2 + 1;
+        for (long i = 1; i <= rows; i++) {
+            pointHistoryStore.insert(1L, i, TransactionType.CHARGE, i);
+        }
+        pointHistoryStore.insert(2L, 500L, TransactionType.USE, 1L);
+        when(balanceEngine.get(1L)).thenReturn(new UserPoint(1L, 1000L, 1L));
+
+        //when
+        List<String> lines = lines(exportService.exportPointHistories(1L, PointHistoryFormat.NDJSON));
+
+        //then
+        assertEquals(rows, lines.size());
+        assertEquals("{\"id\":1,\"userId\":1,\"amount\":1,\"type\":\"CHARGE\",\"updateMillis\":1}", lines.get(0));
+        assertTrue(lines.get(rows - 1).startsWith("{\"id\":" + rows + ","));
+        verify(pointHistoryWriter).flushForRead(1L);
+    }
+
+    @Test
+    public void 전체_사용자_내역을_헤더가_있는_CSV로_내보낸다() throws Exception {
+        //given
+        pointHistoryStore.insert(1L, 1000L, TransactionType.CHARGE, 1L);
+        pointHistoryStore.insert(2L, 2000L, TransactionType.CHARGE, 2L);
+        pointHistoryStore.insert(1L, 300L, TransactionType.USE, 3L);
+
+        //when
+        List<String> lines = lines(exportService.exportAllPointHistories(PointHistoryFormat.CSV));
+
+        //then
+        assertEquals("id,userId,amount,type,updateMillis", lines.get(0));
+        assertEquals(4, lines.size());
+        assertTrue(lines.containsAll(List.of("1,1,1000,CHARGE,1", "2,2,2000,CHARGE,2", "3,1,300,USE,3")));
+        // 사용자별 내역은 id 순서
+        assertTrue(lines.indexOf("1,1,1000,CHARGE,1") < lines.indexOf("3,1,300,USE,3"));
+    }
+
+    @Test
+    public void 존재하지_않는_사용자는_응답을_쓰기_전에_예외발생() throws Exception {
+        //given
+        when(balanceEngine.get(999L)).thenReturn(UserPoint.empty(999L));
+
+        //when
+        PointException e = assertThrows(PointException.class,
+                () -> exportService.exportPointHistories(999L, PointHistoryFormat.CSV));
+
+        //then
+        assertEquals("USER_NOT_FOUND", e.getCode());
+        verifyNoInteractions(pointHistoryWriter);
+    }
+}
@@ -0,0 +1,217 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PointHistoryWriterTest {
+
+    @Mock
+    private PointHistoryStore pointHistoryStore;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PointHistoryWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    private PointHistoryWriter startWriter(int capacity, int batchSize, Duration flushInterval, Duration offerTimeout) {
+        return startWriter(capacity, batchSize, flushInterval, offerTimeout, Duration.ofSeconds(3));
+    }
+
+    private PointHistoryWriter startWriter(int capacity, int batchSize, Duration flushInterval, Duration offerTimeout, Duration readFlushTimeout) {
+        writer = new PointHistoryWriter(pointHistoryStore, new PointSummaries(pointHistoryStore),
+                new PointHistoryWriterProperties(capacity, batchSize, flushInterval, offerTimeout, readFlushTimeout),
+                new PointMetrics(registry));
+        writer.start();
+        return writer;
+    }
+
+    @Test
+    public void flush_호출시_대기중인_내역이_순서대로_적재된다() throws Exception {
+        //given
+        startWriter(100, 100, Duration.ofSeconds(10), Duration.ofMillis(100));
+        writer.append(1L, 1000L, TransactionType.CHARGE, 1L);
+        writer.append(1L, 500L, TransactionType.USE, 2L);
+
+        //when
+        writer.flush();
+
+        //then
+        InOrder inOrder = inOrder(pointHistoryStore);
+        inOrder.verify(pointHistoryStore).insert(1L, 1000L, TransactionType.CHARGE, 1L);
+        inOrder.verify(pointHistoryStore).insert(1L, 500L, TransactionType.USE, 2L);
+        assertEquals(0, writer.pendingCount());
+        // 저장소 종류와 관계없이 내역 저장 시간을 기록한다.
+        assertEquals(2, registry.get("point.table.calls").tags("table", "point_history", "method", "insert").timer().count());
+    }
+
+    @Test
+    public void 배치크기에_도달하면_백그라운드에서_적재된다() throws Exception {
+        //given
+        startWriter(100, 2, Duration.ofSeconds(10), Duration.ofMillis(100));
+
+        //when
+        writer.append(1L, 1000L, TransactionType.CHARGE, 1L);
+        writer.append(2L, 2000L, TransactionType.CHARGE, 2L);
+
+        //then
+        verify(pointHistoryStore, timeout(1000).times(2))
+                .insert(anyLong(), anyLong(), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    public void 대기열이_가득차면_예외발생() throws Exception {
+        //given
+        startWriter(1, 10, Duration.ofSeconds(10), Duration.ofMillis(10));
+        writer.append(1L, 1000L, TransactionType.CHARGE, 1L);
+
+        //when
+        PointException e = assertThrows(PointException.class,
+                () -> writer.append(1L, 1000L, TransactionType.CHARGE, 2L));
+
+        //then
+        assertEquals("HISTORY_QUEUE_FULL", e.getCode());
+    }
+
+    @Test
+    public void 종료시_남은_내역을_모두_적재한다() throws Exception {
+        //given
+        startWriter(100, 100, Duration.ofSeconds(10), Duration.ofMillis(100));
+        for (int i = 0; i < 5; i++) {
+            writer.append(1L, 100L, TransactionType.CHARGE, i);
+        }
+
+        //when
+        writer.shutdown();
+
+        //then
+        verify(pointHistoryStore, times(5)).insert(eq(1L), eq(100L), eq(TransactionType.CHARGE), anyLong());
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    public void 적재_도중_실패하면_남은_내역을_버리지_않고_순서대로_다시_적재한다() throws Exception {
+        //given
+        // 두 번째 내역을 처음 저장할 때만 실패
+        AtomicBoolean failed = new AtomicBoolean();
+        when(pointHistoryStore.insert(eq(1L), anyLong(), eq(TransactionType.CHARGE), anyLong())).thenAnswer(invocation -> {
+            if ((long) invocation.getArgument(1) == 200L && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("저장 실패");
+            }
+            return null;
+        });
+        startWriter(100, 100, Duration.ofMillis(10), Duration.ofMillis(100));
+
+        //when
+        writer.append(1L, 100L, TransactionType.CHARGE, 1L);
+        writer.append(1L, 200L, TransactionType.CHARGE, 2L);
+        writer.append(1L, 300L, TransactionType.CHARGE, 3L);
+
+        //then
+        verify(pointHistoryStore, timeout(1000)).insert(1L, 300L, TransactionType.CHARGE, 3L);
+        InOrder inOrder = inOrder(pointHistoryStore);
+        inOrder.verify(pointHistoryStore).insert(1L, 100L, TransactionType.CHARGE, 1L);
+        inOrder.verify(pointHistoryStore, times(2)).insert(1L, 200L, TransactionType.CHARGE, 2L);
+        inOrder.verify(pointHistoryStore).insert(1L, 300L, TransactionType.CHARGE, 3L);
+        verify(pointHistoryStore, times(1)).insert(1L, 100L, TransactionType.CHARGE, 1L);
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    public void 조회_전_적재는_readFlushTimeout_까지만_기다린다() throws Exception {
+        //given
+        // 한 건 적재에 50ms
+        when(pointHistoryStore.insert(anyLong(), anyLong(), eq(TransactionType.CHARGE), anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return null;
+        });
+        startWriter(100, 100, Duration.ofSeconds(10), Duration.ofMillis(100), Duration.ofMillis(100));
+        for (int i = 0; i < 20; i++) {
+            writer.append(1L, 100L, TransactionType.CHARGE, i);
+        }
+
+        //when
+        long startedAt = System.nanoTime();
+        boolean flushed = writer.flushForRead();
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        //then
+        assertFalse(flushed);
+        assertTrue(elapsedMillis < 500, "elapsed=" + elapsedMillis);
+        assertEquals(1, writer.staleReadCount());
+        // 남은 내역은 종료 시 모두 적재된다.
+        writer.shutdown();
+        verify(pointHistoryStore, times(20)).insert(eq(1L), eq(100L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    public void 사용자_내역_조회_전_적재는_시간이_지나도_그_사용자의_내역은_모두_적재한다() throws Exception {
+        //given
+        // 한 건 적재에 50ms, 두 사용자의 내역이 번갈아 10건씩
+        when(pointHistoryStore.insert(anyLong(), anyLong(), eq(TransactionType.CHARGE), anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return null;
+        });
+        startWriter(100, 100, Duration.ofSeconds(10), Duration.ofMillis(100), Duration.ofMillis(100));
+        for (int i = 0; i < 10; i++) {
+            writer.append(1L, 100L, TransactionType.CHARGE, i);
+            writer.append(2L, 200L, TransactionType.CHARGE, i);
+        }
+
+        //when
+        boolean flushed = writer.flushForRead(2L);
+
+        //then
+        assertTrue(flushed);
+        assertEquals(0, writer.staleReadCount());
+        InOrder inOrder = inOrder(pointHistoryStore);
+        for (int i = 0; i < 10; i++) {
+            inOrder.verify(pointHistoryStore).insert(2L, 200L, TransactionType.CHARGE, i);
+        }
+        // 다른 사용자의 내역은 종료 시 모두 적재된다.
+        writer.shutdown();
+        verify(pointHistoryStore, times(10)).insert(eq(1L), eq(100L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    public void 종료_시_적재에_실패하면_다시_시도해서_남은_내역을_적재한다() throws Exception {
+        //given
+        AtomicBoolean failed = new AtomicBoolean();
+        when(pointHistoryStore.insert(anyLong(), anyLong(), eq(TransactionType.CHARGE), anyLong())).thenAnswer(invocation -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("저장 실패");
+            }
+            return null;
+        });
+        startWriter(100, 100, Duration.ofMillis(100), Duration.ofMillis(100));
+        writer.append(1L, 100L, TransactionType.CHARGE, 1L);
+        writer.append(1L, 200L, TransactionType.CHARGE, 2L);
+
+        //when
+        writer.shutdown();
+
+        //then
+        InOrder inOrder = inOrder(pointHistoryStore);
+        inOrder.verify(pointHistoryStore, times(2)).insert(1L, 100L, TransactionType.CHARGE, 1L);
+        inOrder.verify(pointHistoryStore).insert(1L, 200L, TransactionType.CHARGE, 2L);
+    }
+}
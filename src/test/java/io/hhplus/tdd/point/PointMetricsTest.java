@@ -0,0 +1,52 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PointMetrics pointMetrics = new PointMetrics(registry);
+
+    @Test
+    public void 거절된_요청은_코드별로_센다() throws Exception {
+        //when
+        for (int i = 0; i < 3; i++) {
+            assertThrows(PointException.class, () -> pointMetrics.recordService(PointMetrics.Operation.USE, () -> {
+                throw new PointException("NOT_ENOUGH_AMOUNT", "포인트가 부족합니다.");
+            }));
+        }
+        pointMetrics.recordService(PointMetrics.Operation.USE, () -> "ok");
+
+        //then
+        assertEquals(3.0, registry.get("point.rejections").tags("operation", "use", "code", "NOT_ENOUGH_AMOUNT").counter().count());
+        assertEquals(4, registry.get("point.service.calls").tag("operation", "use").timer().count());
+    }
+
+    @Test
+    public void 테이블_호출_시간을_기록한다() throws Exception {
+        //when
+        UserPoint result = pointMetrics.recordTable(PointMetrics.TableCall.USER_POINT_SELECT, () -> UserPoint.empty(1L));
+
+        //then
+        assertEquals(UserPoint.empty(1L), result);
+        assertEquals(1, registry.get("point.table.calls").tags("table", "user_point", "method", "selectById").timer().count());
+    }
+
+    @Test
+    public void 검증_시간은_실패한_검증도_기록한다() throws Exception {
+        //given
+        PointValidator validator = new PointValidator();
+
+        //when
+        pointMetrics.recordValidation(PointMetrics.Operation.CHARGE, () -> validator.validateUserExists(new UserPoint(1L, 100L, 1L)));
+        assertThrows(PointException.class, () -> pointMetrics.recordValidation(PointMetrics.Operation.CHARGE,
+                () -> validator.validateUserExists(UserPoint.empty(2L))));
+
+        //then
+        assertEquals(2, registry.get("point.validation").tag("operation", "charge").timer().count());
+        assertEquals(0, registry.get("point.validation").tag("operation", "use").timer().count());
+    }
+}
@@ -0,0 +1,82 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointRateLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private PointRateLimiter limiter(int maxUsers, int capacity, double permitsPerSecond) {
+        PointRateLimitProperties.Limit limit = new PointRateLimitProperties.Limit(capacity, permitsPerSecond);
+        return new PointRateLimiter(new PointRateLimitProperties(true, maxUsers, limit, limit), new PointMetrics(registry));
+    }
+
+    @Test
+    public void bucket_크기만큼은_한번에_받고_넘으면_다시_시도할_시간과_함께_거절한다() throws Exception {
+        //given
+        PointRateLimiter limiter = limiter(100, 3, 1);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(TransactionType.CHARGE, 1L);
+        }
+
+        //when
+        RateLimitedException e = assertThrows(RateLimitedException.class, () -> limiter.acquire(TransactionType.CHARGE, 1L));
+
+        //then
+        assertEquals("TOO_MANY_REQUESTS", e.getCode());
+        assertTrue(e.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertTrue(e.getRetryAfter().compareTo(Duration.ofSeconds(1)) <= 0);
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(1, limiter.rejectedCount(TransactionType.CHARGE));
+        assertEquals(1.0, registry.get("point.rejections").tags("operation", "charge", "code", "TOO_MANY_REQUESTS").counter().count());
+        // 다른 사용자, 다른 요청 종류는 따로 센다.
+        assertDoesNotThrow(() -> limiter.acquire(TransactionType.CHARGE, 2L));
+        assertDoesNotThrow(() -> limiter.acquire(TransactionType.USE, 1L));
+    }
+
+    @Test
+    public void 시간이_지나면_다시_채워진다() throws Exception {
+        //given
+        PointRateLimiter limiter = limiter(100, 1, 20);
+        limiter.acquire(TransactionType.USE, 1L);
+        RateLimitedException e = assertThrows(RateLimitedException.class, () -> limiter.acquire(TransactionType.USE, 1L));
+
+        //when
+        Thread.sleep(e.getRetryAfter().toMillis() + 1);
+
+        //then
+        assertDoesNotThrow(() -> limiter.acquire(TransactionType.USE, 1L));
+    }
+
+    @Test
+    public void 기억하는_사용자_수가_가득_차면_새_사용자는_제한하지_않는다() throws Exception {
+        //given
+        PointRateLimiter limiter = limiter(1, 1, 1);
+        limiter.acquire(TransactionType.CHARGE, 1L);
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(TransactionType.CHARGE, 2L);
+        }
+
+        //then
+        assertEquals(1, limiter.size());
+        assertEquals(3, limiter.untrackedCount(TransactionType.CHARGE));
+    }
+
+    @Test
+    public void 채워지는_속도가_0_이하이거나_bucket_크기가_1_미만이면_설정할_수_없다() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new PointRateLimitProperties.Limit(20, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PointRateLimitProperties.Limit(20, -1));
+        assertThrows(IllegalArgumentException.class, () -> new PointRateLimitProperties.Limit(20, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new PointRateLimitProperties.Limit(0, 10));
+        // (capacity - 1) / permitsPerSecond 를 nanos 로 바꾸면 long 을 넘는다.
+        assertThrows(IllegalArgumentException.class, () -> new PointRateLimitProperties.Limit(Integer.MAX_VALUE, 1e-9));
+        assertThrows(IllegalArgumentException.class, () -> limiter(0, 1, 1));
+    }
+}
@@ -29,6 +29,9 @@ class PointServiceConcurrencyTest {
     @Autowired
     private UserPointTable userPointTable;
 
+    @Autowired
+    private UserPointCache userPointCache;
+
     private ExecutorService executor;
 
     // 테스트에 사용할 사용자 ID
@@ -40,6 +43,8 @@ class PointServiceConcurrencyTest {
         // 초기 포인트 1000L로 직접 세팅 (비즈니스 로직 생략)
         userPointTable.insertOrUpdate(USER_ID, 1000L);
         userPointTable.insertOrUpdate(USER_ID2, 1000L);
+        // 테이블을 직접 수정했으므로 캐시 비우기
+        userPointCache.clear();
     }
 
     @Test
@@ -316,6 +321,7 @@ class PointServiceConcurrencyTest {
         for (long userId = 1L; userId <= users; userId++) {
             userPointTable.insertOrUpdate(userId, 1000L);
         }
+        userPointCache.clear();
 
         // when: 사용자별로 충전 5회, 사용 10회 동시 실행
         for (long userId = 1L; userId <= users; userId++) {
@@ -362,4 +368,83 @@ class PointServiceConcurrencyTest {
 
         assertEquals(0, exceptions.size(), "예외가 발생해서는 안됨");
     }
+
+    @Test
+    void 사용자_ID로_동시에_충전과_사용을_요청하면_모두_반영된다() throws InterruptedException {
+        // given
+        long userId = 20L;
+        userPointTable.insertOrUpdate(userId, 1000L);
+        userPointCache.clear();
+
+        int chargeThreads = 20;
+        int useThreads = 10;
+        int totalThreads = chargeThreads + useThreads;
+        ExecutorService executor = Executors.newFixedThreadPool(totalThreads);
+        CountDownLatch latch = new CountDownLatch(totalThreads);
+        Queue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+
+        // when - 충전 20회, 사용 10회
+        for (int i = 0; i < totalThreads; i++) {
+            boolean charge = i < chargeThreads;
+            executor.execute(() -> {
+                try {
+                    if (charge) {
+                        pointService.chargePoint(userId, 100L);
+                    } else {
+                        pointService.usePoint(userId, 100L);
+                    }
+                } catch (Throwable e) {
+                    exceptions.add(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        latch.await();
+        executor.shutdown();
+
+        // then: 1000 + 20×100 - 10×100 = 2000
+        assertEquals(0, exceptions.size(), "예외가 발생해서는 안됨");
+        assertEquals(2000L, pointService.getUserPoint(userId).point());
+        assertEquals(30, pointService.getPointHistories(userId).size());
+    }
+
+    @Test
+    void 사용자_ID로_동시에_사용을_요청하면_잔액을_넘는_요청만_실패한다() throws InterruptedException {
+        // given
+        long userId = 21L;
+        userPointTable.insertOrUpdate(userId, 1000L);
+        userPointCache.clear();
+
+        int threads = 15;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        Queue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+
+        // when - 100씩 15회 사용
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    pointService.usePoint(userId, 100L);
+                } catch (Throwable e) {
+                    exceptions.add(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        latch.await();
+        executor.shutdown();
+
+        // then: 잔액을 검증한 값과 변경한 값이 같으므로 정확히 10건만 성공한다.
+        assertEquals(0L, pointService.getUserPoint(userId).point());
+        assertEquals(10, pointService.getPointHistories(userId).size());
+        assertEquals(5, exceptions.size());
+        for (Throwable e : exceptions) {
+            assertTrue(e instanceof PointException);
+            assertEquals("포인트가 부족합니다.", e.getMessage());
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package io.hhplus.tdd.point;
 
+import com.jayway.jsonpath.JsonPath;
 import io.hhplus.tdd.database.PointHistoryTable;
 import io.hhplus.tdd.database.UserPointTable;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,10 +10,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -25,6 +34,9 @@ public class PointServiceIntegrationTest {
     @Autowired
     UserPointTable userPointTable;
 
+    @Autowired
+    UserPointCache userPointCache;
+
     @Autowired
     PointHistoryTable pointHistoryTable;
 
@@ -33,6 +45,8 @@ public class PointServiceIntegrationTest {
         userPointTable.insertOrUpdate(1L, 5000L);
         userPointTable.insertOrUpdate(2L, 5000L);
         userPointTable.insertOrUpdate(3L, 5000L);
+        // 테이블을 직접 수정했으므로 캐시 비우기
+        userPointCache.clear();
     }
 
     @Test
@@ -280,4 +294,217 @@ public class PointServiceIntegrationTest {
                 .andExpect(jsonPath("$.message").value("ID는 숫자여야 합니다."));
     }
 
+    @Test
+    public void 포인트_내역_페이지_조회() throws Exception {
+        // 다른 테스트와 내역이 섞이지 않도록 별도 사용자 사용
+        userPointTable.insertOrUpdate(10L, 5000L);
+        userPointCache.clear();
+        for (String amount : new String[]{"1000", "2000", "3000"}) {
+            mockMvc.perform(patch("/point/10/charge")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(amount));
+        }
+        mockMvc.perform(patch("/point/10/use")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("500"));
+
+        // 첫 페이지
+        MvcResult first = mockMvc.perform(get("/point/10/histories/page").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.histories.length()").value(2))
+                .andExpect(jsonPath("$.histories[0].amount").value(1000))
+                .andExpect(jsonPath("$.histories[1].amount").value(2000))
+                .andExpect(jsonPath("$.nextCursor").isNumber())
+                .andReturn();
+        String nextCursor = JsonPath.read(first.getResponse().getContentAsString(), "$.nextCursor").toString();
+
+        // 다음 페이지 (마지막)
+        mockMvc.perform(get("/point/10/histories/page")
+                        .param("limit", "2")
+                        .param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.histories.length()").value(2))
+                .andExpect(jsonPath("$.histories[0].amount").value(3000))
+                .andExpect(jsonPath("$.histories[1].type").value("USE"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // 사용 내역만 조회
+        mockMvc.perform(get("/point/10/histories/page").param("type", "USE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.histories.length()").value(1))
+                .andExpect(jsonPath("$.histories[0].amount").value(500));
+
+        // 페이지 조회 조건을 붙여도 기존 내역 조회는 배열 응답 그대로다.
+        mockMvc.perform(get("/point/10/histories").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$.length()").value(4));
+    }
+
+    @Test
+    public void 포인트_내역_페이지_조회시_조회건수가_범위를_벗어나면_예외발생() throws Exception {
+        mockMvc.perform(get("/point/1/histories/page").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_PAGE_LIMIT"));
+    }
+
+    @Test
+    public void 포인트_내역_CSV_스트리밍_내보내기() throws Exception {
+        // 다른 테스트와 내역이 섞이지 않도록 별도 사용자 사용
+        userPointTable.insertOrUpdate(11L, 5000L);
+        userPointCache.clear();
+        mockMvc.perform(patch("/point/11/charge")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("1000"));
+
+        MvcResult result = mockMvc.perform(get("/point/11/histories/stream").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string(matchesPattern("id,userId,amount,type,updateMillis\n\\d+,11,1000,CHARGE,\\d+\n")));
+    }
+
+    @Test
+    public void 같은_Idempotency_Key로_재시도한_충전은_한번만_반영된다() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(patch("/point/2/charge")
+                            .header("Idempotency-Key", "charge-2-retry")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("1000"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.point").value(6000));
+        }
+
+        mockMvc.perform(get("/point/2"))
+                .andExpect(jsonPath("$.point").value(6000));
+
+        mockMvc.perform(patch("/point/2/charge")
+                        .header("Idempotency-Key", "charge-2-retry")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("2000"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.code").value("IDEMPOTENCY_KEY_REUSED"));
+    }
+
+    @Test
+    public void 사용자별_요청_수_제한을_넘으면_Retry_After와_함께_429() throws Exception {
+        // 다른 테스트와 제한이 섞이지 않도록 별도 사용자 사용, 존재하지 않는 사용자라 잔액은 바뀌지 않는다.
+        // 요청하는 동안에도 bucket 이 채워지므로 거절될 때까지 보낸다.
+        MvcResult limited = null;
+        for (int i = 0; i < 100 && limited == null; i++) {
+            MvcResult result = mockMvc.perform(patch("/point/998/use")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("100"))
+                    .andReturn();
+            if (result.getResponse().getStatus() == 429) {
+                limited = result;
+            }
+        }
+
+        assertNotNull(limited);
+        assertNotNull(limited.getResponse().getHeader("Retry-After"));
+        assertTrue(limited.getResponse().getContentAsString().contains("TOO_MANY_REQUESTS"));
+    }
+
+    @Test
+    public void 포인트_내역_요약_조회() throws Exception {
+        // 다른 테스트와 내역이 섞이지 않도록 별도 사용자 사용
+        userPointTable.insertOrUpdate(12L, 5000L);
+        userPointCache.clear();
+        mockMvc.perform(patch("/point/12/charge")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("1000"));
+        mockMvc.perform(patch("/point/12/use")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("300"));
+
+        mockMvc.perform(get("/point/12/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(12))
+                .andExpect(jsonPath("$.totalCharged").value(1000))
+                .andExpect(jsonPath("$.totalUsed").value(300))
+                .andExpect(jsonPath("$.transactionCount").value(2))
+                .andExpect(jsonPath("$.lastActivityMillis").isNumber());
+    }
+
+    @Test
+    public void 존재하지_않는_사용자의_내역_내보내기시_예외발생() throws Exception {
+        mockMvc.perform(get("/point/999/histories/stream"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("USER_NOT_FOUND"));
+    }
+
+    @Test
+    public void 포인트_일괄_충전_사용() throws Exception {
+        mockMvc.perform(post("/point/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"userId": 1, "type": "CHARGE", "amount": 1000},
+                                  {"userId": 2, "type": "USE", "amount": 6000},
+                                  {"userId": 1, "type": "USE", "amount": 3000},
+                                  {"userId": 999, "type": "CHARGE", "amount": 1000}
+                                ]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].userPoint.point").value(6000))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].code").value("NOT_ENOUGH_AMOUNT"))
+                .andExpect(jsonPath("$[2].userPoint.point").value(3000))
+                .andExpect(jsonPath("$[3].code").value("USER_NOT_FOUND"));
+
+        mockMvc.perform(get("/point/1"))
+                .andExpect(jsonPath("$.point").value(3000));
+    }
+
+    @Test
+    public void 비동기_포인트_충전_성공() throws Exception {
+        MvcResult result = mockMvc.perform(patch("/point/async/3/charge")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("1000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(3))
+                .andExpect(jsonPath("$.point").value(6000));
+    }
+
+    @Test
+    public void 비동기_포인트_사용시_잔액이_부족하면_예외발생() throws Exception {
+        MvcResult result = mockMvc.perform(patch("/point/async/3/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("10000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("NOT_ENOUGH_AMOUNT"));
+    }
+
+    @Test
+    public void 같은_Idempotency_Key로_재시도한_비동기_충전은_한번만_반영된다() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MvcResult result = mockMvc.perform(patch("/point/async/3/charge")
+                            .header("Idempotency-Key", "async-charge-3-retry")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("1000"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.point").value(6000));
+        }
+
+        mockMvc.perform(get("/point/3"))
+                .andExpect(jsonPath("$.point").value(6000));
+    }
 }
@@ -1,15 +1,23 @@
 package io.hhplus.tdd.point;
 
-import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.PointHistoryStore;
 import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -22,14 +30,47 @@ class PointServiceTest {
     private UserPointTable userPointTable;
 
     @Mock
-    private PointHistoryTable pointHistoryTable;
+    private PointHistoryStore pointHistoryStore;
+
+    @Mock
+    private PointHistoryWriter pointHistoryWriter;
+
+    @Mock
+    private PointSummaries pointSummaries;
 
     @Mock
     private PointValidator validator;
 
-    @InjectMocks
     private PointService pointService;
 
+    @BeforeEach
+    void setUp() {
+        pointService = pointService(Duration.ofSeconds(5));
+        // 실제 테이블처럼 저장한 행을 돌려준다.
+        lenient().when(userPointTable.insertOrUpdate(anyLong(), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis()));
+    }
+
+    // 실행 스레드 1개, 대기열 1칸
+    private PointService pointService(Duration requestTimeout) {
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        return new PointService(
+                new LockingBalanceEngine(
+                        userPointTable,
+                        pointHistoryWriter,
+                        new UserLockRegistry(UserLockProperties.unbounded()),
+                        new UserPointCache(new UserPointCacheProperties(true, 1000, Duration.ofSeconds(5), 4)),
+                        pointMetrics
+                ),
+                pointHistoryStore,
+                pointHistoryWriter,
+                pointSummaries,
+                validator,
+                new PointExecutors(new PointExecutorProperties(2, false, 1, 1, requestTimeout)),
+                pointMetrics
+        );
+    }
+
     @Test
     public void 사용자의_포인트_조회_성공() throws Exception {
         //given
@@ -60,6 +101,37 @@ class PointServiceTest {
 
     }
 
+    @Test
+    public void 같은_사용자의_동시_조회는_테이블을_한번만_읽는다() throws Exception {
+        //given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new UserPoint(1L, 1000L, System.currentTimeMillis());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        //when
+        Future<UserPoint> first = executor.submit(() -> pointService.getUserPoint(1L));
+        started.await();
+        Future<UserPoint> second = executor.submit(() -> pointService.getUserPoint(1L));
+        Future<UserPoint> third = executor.submit(() -> pointService.getUserPoint(1L));
+        // 두 조회가 처리 중인 조회에 합쳐질 때까지
+        while (pointService.coalescedPointReads() < 2) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        //then
+        assertEquals(1000L, first.get().point());
+        assertEquals(1000L, second.get().point());
+        assertEquals(1000L, third.get().point());
+        verify(userPointTable, times(1)).selectById(1L);
+        executor.shutdown();
+    }
+
     @Test
     public void 포인트_충전_성공() throws Exception {
         //given
@@ -131,6 +203,67 @@ class PointServiceTest {
         assertEquals("존재하지 않는 사용자입니다.", e.getMessage());
     }
 
+    @Test
+    public void 사용자ID로_충전시_잔액은_한번만_조회한다() throws Exception {
+        //given
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 1000L, System.currentTimeMillis()));
+
+        //when
+        UserPoint result = pointService.chargePoint(1L, 3000L);
+
+        //then
+        assertEquals(4000L, result.point());
+        verify(userPointTable, times(1)).selectById(1L);
+        verify(validator, times(1)).validateUserExists(any(UserPoint.class));
+    }
+
+    @Test
+    public void 충전_후_조회는_테이블이_돌려준_행을_캐시에서_반환한다() throws Exception {
+        //given
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 1000L, 10L));
+        UserPoint saved = new UserPoint(1L, 4000L, 20L);
+        when(userPointTable.insertOrUpdate(1L, 4000L)).thenReturn(saved);
+
+        //when
+        UserPoint charged = pointService.chargePoint(1L, 3000L);
+        UserPoint result = pointService.getUserPoint(1L);
+
+        //then
+        assertEquals(saved, charged);
+        assertEquals(saved, result);
+        verify(userPointTable, times(1)).selectById(1L);
+    }
+
+    @Test
+    public void 사용자ID로_충전시_존재하지_않는_사용자면_반영하지_않는다() throws Exception {
+        //given
+        UserPoint unknown = UserPoint.empty(1L);
+        when(userPointTable.selectById(1L)).thenReturn(unknown);
+        doThrow(new PointException("USER_NOT_FOUND", "존재하지 않는 사용자입니다."))
+                .when(validator).validateUserExists(unknown);
+
+        //when
+        PointException e = assertThrows(PointException.class, () -> pointService.chargePoint(1L, 1000L));
+
+        //then
+        assertEquals("USER_NOT_FOUND", e.getCode());
+        verify(userPointTable, never()).insertOrUpdate(anyLong(), anyLong());
+        verify(pointHistoryWriter, never()).append(anyLong(), anyLong(), any(TransactionType.class), anyLong());
+    }
+
+    @Test
+    public void 사용자ID로_사용시_잔액은_한번만_조회한다() throws Exception {
+        //given
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 5000L, System.currentTimeMillis()));
+
+        //when
+        UserPoint result = pointService.usePoint(1L, 3000L);
+
+        //then
+        assertEquals(2000L, result.point());
+        verify(userPointTable, times(1)).selectById(1L);
+    }
+
     @Test
     public void 포인트_사용_성공() throws Exception {
         //given
@@ -212,7 +345,7 @@ class PointServiceTest {
         UserPoint charged = pointService.chargePoint(current, 3000L);
 
         //then
-        verify(pointHistoryTable, times(1)).insert(
+        verify(pointHistoryWriter, times(1)).append(
                 eq(1L),
                 eq(3000L),
                 eq(TransactionType.CHARGE),
@@ -230,7 +363,7 @@ class PointServiceTest {
         UserPoint used = pointService.usePoint(current, 4000L);
 
         //then
-        verify(pointHistoryTable, times(1)).insert(
+        verify(pointHistoryWriter, times(1)).append(
                 eq(1L),
                 eq(4000L),
                 eq(TransactionType.USE),
@@ -247,7 +380,7 @@ class PointServiceTest {
                 new PointHistory(2L, userId, 2000L, TransactionType.USE, System.currentTimeMillis())
         );
 
-        when(pointHistoryTable.selectAllByUserId(userId)).thenReturn(pointHistories);
+        when(pointHistoryStore.selectAllByUserId(userId)).thenReturn(pointHistories);
 
         //when
         List<PointHistory> result = pointService.getPointHistories(userId);
@@ -262,6 +395,23 @@ class PointServiceTest {
 
     }
 
+    @Test
+    public void 포인트_요약_조회시_내역을_읽지_않고_집계값을_반환한다() throws Exception {
+        //given
+        long userId = 1L;
+        PointSummary summary = new PointSummary(userId, 3000L, 2000L, 2, 10L);
+        when(userPointTable.selectById(eq(userId))).thenReturn(new UserPoint(userId, 1000L, 10L));
+        when(pointSummaries.get(userId)).thenReturn(summary);
+
+        //when
+        PointSummary result = pointService.getPointSummary(userId);
+
+        //then
+        assertEquals(summary, result);
+        verify(pointHistoryWriter).flushForRead(userId);
+        verifyNoInteractions(pointHistoryStore);
+    }
+
     @Test
     public void 포인트_충전및사용_히스토리가_없을_경우_예외발생() throws Exception {
         // given
@@ -269,7 +419,7 @@ class PointServiceTest {
         UserPoint userPoint = new UserPoint(userId, 1000L, System.currentTimeMillis());
 
         when(userPointTable.selectById(eq(userId))).thenReturn(userPoint);
-        when(pointHistoryTable.selectAllByUserId(eq(userId))).thenReturn(Collections.emptyList());
+        when(pointHistoryStore.selectAllByUserId(eq(userId))).thenReturn(Collections.emptyList());
 
         doThrow(new PointException("POINT_HISTORY_EMPTY", "포인트 충전 및 사용 내역이 없습니다."))
                 .when(validator).validateHistoryExists(Collections.emptyList());
@@ -282,4 +432,137 @@ class PointServiceTest {
         // then
         assertEquals("포인트 충전 및 사용 내역이 없습니다.", e.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 일괄처리시_사용자별로_순서대로_반영하고_잔액은_한번만_저장한다() throws Exception {
+        //given
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 1000L, System.currentTimeMillis()));
+        List<PointOperation> operations = List.of(
+                new PointOperation(1L, TransactionType.CHARGE, 500L),
+                new PointOperation(1L, TransactionType.USE, 2000L),
+                new PointOperation(1L, TransactionType.USE, 1500L)
+        );
+
+        //when
+        List<PointOperationResult> results = pointService.applyBatch(operations);
+
+        //then
+        assertTrue(results.get(0).success());
+        assertEquals(1500L, results.get(0).userPoint().point());
+        assertFalse(results.get(1).success());
+        assertEquals("NOT_ENOUGH_AMOUNT", results.get(1).code());
+        assertTrue(results.get(2).success());
+        assertEquals(0L, results.get(2).userPoint().point());
+
+        verify(userPointTable, times(1)).insertOrUpdate(anyLong(), anyLong());
+        verify(userPointTable).insertOrUpdate(1L, 0L);
+        verify(pointHistoryWriter, times(2)).append(eq(1L), anyLong(), any(TransactionType.class), anyLong());
+    }
+
+    @Test
+    public void 일괄처리시_존재하지_않는_사용자의_요청만_실패한다() throws Exception {
+        //given
+        UserPoint unknown = UserPoint.empty(2L);
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 1000L, System.currentTimeMillis()));
+        when(userPointTable.selectById(2L)).thenReturn(unknown);
+        doThrow(new PointException("USER_NOT_FOUND", "존재하지 않는 사용자입니다."))
+                .when(validator).validateUserExists(unknown);
+
+        //when
+        List<PointOperationResult> results = pointService.applyBatch(List.of(
+                new PointOperation(2L, TransactionType.CHARGE, 100L),
+                new PointOperation(1L, TransactionType.CHARGE, 100L)
+        ));
+
+        //then
+        assertFalse(results.get(0).success());
+        assertEquals("USER_NOT_FOUND", results.get(0).code());
+        assertTrue(results.get(1).success());
+        assertEquals(1100L, results.get(1).userPoint().point());
+    }
+
+    @Test
+    public void 일괄처리시_받아들이지_않은_요청만_반영하지_않는다() throws Exception {
+        //given
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 1000L, System.currentTimeMillis()));
+        List<PointOperation> operations = List.of(
+                new PointOperation(1L, TransactionType.CHARGE, 100L),
+                new PointOperation(1L, TransactionType.CHARGE, 200L),
+                new PointOperation(1L, TransactionType.USE, 300L)
+        );
+
+        //when
+        // 두 번째 요청은 요청 수 제한에 걸린 것처럼 거절한다.
+        List<PointOperationResult> results = pointService.applyBatch(operations, operation -> {
+            if (operation.amount() == 200L) {
+                throw new RateLimitedException(Duration.ofSeconds(1));
+            }
+        });
+
+        //then
+        assertTrue(results.get(0).success());
+        assertEquals(1100L, results.get(0).userPoint().point());
+        assertFalse(results.get(1).success());
+        assertEquals("TOO_MANY_REQUESTS", results.get(1).code());
+        assertTrue(results.get(2).success());
+        assertEquals(800L, results.get(2).userPoint().point());
+        verify(pointHistoryWriter, never()).append(eq(1L), eq(200L), any(TransactionType.class), anyLong());
+    }
+
+    @Test
+    public void 비동기_요청_대기열이_가득_차면_바로_거절한다() throws Exception {
+        //given
+        // 실행 스레드 1개, 대기열 1칸 : 첫 요청이 실행 중이고 두 번째 요청이 대기 중이면 세 번째 요청은 거절된다.
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new UserPoint(1L, 1000L, System.currentTimeMillis());
+        });
+
+        //when
+        CompletableFuture<UserPoint> running = pointService.getUserPointAsync(1L);
+        started.await();
+        CompletableFuture<UserPoint> queued = pointService.getUserPointAsync(1L);
+        CompletableFuture<UserPoint> rejected = pointService.getUserPointAsync(1L);
+        release.countDown();
+
+        //then
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertEquals("REQUEST_QUEUE_FULL", ((PointException) e.getCause()).getCode());
+        assertEquals(1000L, running.join().point());
+        assertEquals(1000L, queued.join().point());
+    }
+
+    @Test
+    public void 비동기_요청은_대기열에서_시간이_초과되면_실행하지_않고_실행중인_요청은_끝까지_기다린다() throws Exception {
+        //given
+        PointService service = pointService(Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new UserPoint(1L, 1000L, System.currentTimeMillis());
+        });
+        when(userPointTable.insertOrUpdate(eq(1L), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(1L, invocation.getArgument(1), System.currentTimeMillis()));
+
+        //when
+        CompletableFuture<UserPoint> running = service.chargePointAsync(1L, 500L);
+        started.await();
+        CompletableFuture<UserPoint> queued = service.chargePointAsync(1L, 300L);
+        CompletionException e = assertThrows(CompletionException.class, queued::join);
+        // 실행 중인 요청은 requestTimeout 이 지나도 실패하지 않는다.
+        Thread.sleep(200);
+        assertFalse(running.isDone());
+        release.countDown();
+
+        //then
+        assertEquals("REQUEST_TIMEOUT", ((PointException) e.getCause()).getCode());
+        assertEquals(1500L, running.join().point());
+        verify(userPointTable, times(1)).insertOrUpdate(anyLong(), anyLong());
+        verify(pointHistoryWriter, never()).append(eq(1L), eq(300L), eq(TransactionType.CHARGE), anyLong());
+    }
+}
@@ -0,0 +1,44 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.ColumnarPointHistoryStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointSummariesTest {
+
+    private final ColumnarPointHistoryStore pointHistoryStore = new ColumnarPointHistoryStore();
+    private final PointSummaries pointSummaries = new PointSummaries(pointHistoryStore);
+
+    @Test
+    public void 저장된_내역으로_사용자별_요약을_다시_만든다() throws Exception {
+        //given
+        // 한 번에 읽는 내역 수보다 많이 저장한다.
+        for (long i = 1; i <= 2500; i++) {
+            pointHistoryStore.insert(1L, 10L, TransactionType.CHARGE, i);
+        }
+        pointHistoryStore.insert(1L, 700L, TransactionType.USE, 3000L);
+        pointHistoryStore.insert(2L, 500L, TransactionType.CHARGE, 10L);
+
+        //when
+        pointSummaries.rebuild();
+
+        //then
+        assertEquals(new PointSummary(1L, 25_000L, 700L, 2501, 3000L), pointSummaries.get(1L));
+        assertEquals(new PointSummary(2L, 500L, 0L, 1, 10L), pointSummaries.get(2L));
+    }
+
+    @Test
+    public void 내역_저장시_요약을_갱신하고_내역이_없으면_빈_요약을_반환한다() throws Exception {
+        //given
+        pointSummaries.record(1L, TransactionType.CHARGE, 1000L, 1L);
+        pointSummaries.record(1L, TransactionType.USE, 400L, 2L);
+
+        //when
+        PointSummary summary = pointSummaries.get(1L);
+
+        //then
+        assertEquals(new PointSummary(1L, 1000L, 400L, 2, 2L), summary);
+        assertEquals(PointSummary.empty(3L), pointSummaries.get(3L));
+    }
+}
@@ -0,0 +1,289 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedBalanceEngineTest {
+
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private UserPointTable userPointTable;
+
+    @Mock
+    private PointHistoryWriter pointHistoryWriter;
+
+    private ShardedBalanceEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        // 테이블 반영 주기를 길게 두고 writeThrough() 를 직접 호출해서 검증한다.
+        engine = new ShardedBalanceEngine(userPointTable, pointHistoryWriter,
+                new ShardedBalanceEngineProperties(4, Duration.ofMinutes(1), 10_000, Duration.ofSeconds(5), Duration.ofMinutes(1)), new PointMetrics(new SimpleMeterRegistry()));
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    private Queue<Throwable> runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        Queue<Throwable> exceptions = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    exceptions.add(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        return exceptions;
+    }
+
+    @Test
+    public void 동시_충전시_정상적으로_합산되고_내역이_한번씩_남는다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(50, () -> engine.charge(USER_ID, 100L));
+
+        //then
+        assertEquals(0, exceptions.size());
+        assertEquals(6000L, engine.get(USER_ID).point());
+        verify(userPointTable, times(1)).selectById(USER_ID);
+        verify(pointHistoryWriter, times(50))
+                .tryAppend(eq(USER_ID), eq(100L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    public void 동시_충전시_최대한도를_넘는_요청만_실패한다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 90_000L, 1L));
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(20, () -> engine.charge(USER_ID, 1000L));
+
+        //then
+        assertEquals(100_000L, engine.get(USER_ID).point());
+        assertEquals(10, exceptions.size());
+        for (Throwable e : exceptions) {
+            assertEquals("충전 가능한 최대 포인트는 100,000입니다.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void 여러_사용자의_요청은_각자의_샤드에서_처리된다() throws Exception {
+        //given
+        for (long userId = 1; userId <= 10; userId++) {
+            when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 1000L, 1L));
+        }
+
+        //when
+        Queue<Throwable> exceptions = runConcurrently(10, () -> {
+            for (long userId = 1; userId <= 10; userId++) {
+                engine.use(userId, 100L);
+            }
+        });
+
+        //then
+        assertEquals(0, exceptions.size());
+        for (long userId = 1; userId <= 10; userId++) {
+            assertEquals(0L, engine.get(userId).point());
+        }
+    }
+
+    @Test
+    public void 일괄_요청은_요청별_결과를_돌려준다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+
+        //when
+        List<PointOperationResult> results = engine.applyAll(USER_ID, List.of(
+                new PointOperation(USER_ID, TransactionType.USE, 500L),
+                new PointOperation(USER_ID, TransactionType.USE, 800L),
+                new PointOperation(USER_ID, TransactionType.CHARGE, 300L)));
+
+        //then
+        assertTrue(results.get(0).success());
+        assertEquals("NOT_ENOUGH_AMOUNT", results.get(1).code());
+        assertEquals(800L, results.get(2).userPoint().point());
+    }
+
+    @Test
+    public void 테이블에는_사용자별_최신_잔액만_반영된다() throws Exception {
+        //given
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+        engine.charge(USER_ID, 100L);
+        engine.charge(USER_ID, 200L);
+        engine.use(USER_ID, 300L);
+
+        //when
+        engine.writeThrough();
+
+        //then
+        verify(userPointTable, times(1)).insertOrUpdate(anyLong(), anyLong());
+        verify(userPointTable).insertOrUpdate(USER_ID, 1000L);
+    }
+
+    @Test
+    public void 처음_요청된_사용자의_잔액을_읽는_동안_같은_샤드의_다른_사용자는_기다리지_않는다() throws Exception {
+        //given
+        ShardedBalanceEngine singleShard = new ShardedBalanceEngine(userPointTable, pointHistoryWriter,
+                new ShardedBalanceEngineProperties(1, Duration.ofMinutes(1), 10_000, Duration.ofSeconds(5), Duration.ofMinutes(1)), new PointMetrics(new SimpleMeterRegistry()));
+        singleShard.start();
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 1000L, 1L));
+        when(userPointTable.selectById(2L)).thenAnswer(invocation -> {
+            release.await();
+            return new UserPoint(2L, 1000L, 1L);
+        });
+
+        try {
+            //when
+            CompletableFuture<UserPoint> slow = CompletableFuture.supplyAsync(() -> singleShard.charge(2L, 100L));
+            UserPoint fast = singleShard.charge(1L, 100L);
+            boolean slowDoneBeforeRelease = slow.isDone();
+            release.countDown();
+
+            //then
+            assertEquals(1100L, fast.point());
+            assertFalse(slowDoneBeforeRelease);
+            assertEquals(1100L, slow.get(5, TimeUnit.SECONDS).point());
+        } finally {
+            singleShard.shutdown();
+        }
+    }
+
+    @Test
+    public void 샤드_대기열이_가득_차면_거절하고_대기_시간이_지난_요청은_반영하지_않는다() throws Exception {
+        //given
+        // 샤드 1개, 대기 명령 1개, 대기 시간 1초
+        ShardedBalanceEngine singleShard = new ShardedBalanceEngine(userPointTable, pointHistoryWriter,
+                new ShardedBalanceEngineProperties(1, Duration.ofMinutes(1), 1, Duration.ofSeconds(1), Duration.ofMinutes(1)), new PointMetrics(new SimpleMeterRegistry()));
+        singleShard.start();
+        when(userPointTable.selectById(USER_ID)).thenReturn(new UserPoint(USER_ID, 1000L, 1L));
+        singleShard.charge(USER_ID, 100L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // 샤드 스레드가 앞선 요청을 처리하는 동안
+            CompletableFuture<UserPoint> running = CompletableFuture.supplyAsync(() -> singleShard.charge(USER_ID, 100L, userPoint -> {
+                started.countDown();
+                await(release);
+            }));
+            started.await();
+
+            //when
+            CompletableFuture<UserPoint> queued = CompletableFuture.supplyAsync(() -> singleShard.charge(USER_ID, 300L));
+            // 대기열에 들어갈 때까지
+            Thread.sleep(100);
+            PointException full = assertThrows(PointException.class, () -> singleShard.charge(USER_ID, 500L));
+            CompletionException timedOut = assertThrows(CompletionException.class, queued::join);
+            release.countDown();
+
+            //then
+            assertEquals("REQUEST_QUEUE_FULL", full.getCode());
+            assertEquals("REQUEST_TIMEOUT", ((PointException) timedOut.getCause()).getCode());
+            assertEquals(1200L, running.get(5, TimeUnit.SECONDS).point());
+            assertEquals(1200L, singleShard.get(USER_ID).point());
+            verify(pointHistoryWriter, never()).tryAppend(eq(USER_ID), eq(300L), eq(TransactionType.CHARGE), anyLong());
+        } finally {
+            release.countDown();
+            singleShard.shutdown();
+        }
+    }
+
+    @Test
+    public void 존재하지_않는_사용자에_대한_요청은_메모리에_남지_않는다() throws Exception {
+        //given
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> UserPoint.empty(invocation.getArgument(0)));
+        PointValidator validator = new PointValidator();
+
+        //when
+        for (long userId = 100; userId < 1100; userId++) {
+            long id = userId;
+            assertThrows(PointException.class, () -> engine.charge(id, 100L, validator::validateUserExists));
+            assertThrows(PointException.class, () -> engine.use(id, 100L, validator::validateUserExists));
+        }
+
+        //then
+        assertEquals(0, engine.size());
+        verifyNoInteractions(pointHistoryWriter);
+    }
+
+    @Test
+    public void 테이블에_반영된_뒤_변경되지_않은_잔액은_제거되고_다음_요청때_다시_읽는다() throws Exception {
+        //given
+        ShardedBalanceEngine evicting = new ShardedBalanceEngine(userPointTable, pointHistoryWriter,
+                new ShardedBalanceEngineProperties(2, Duration.ofMinutes(1), 10_000, Duration.ofSeconds(5), Duration.ZERO), new PointMetrics(new SimpleMeterRegistry()));
+        evicting.start();
+        when(userPointTable.selectById(USER_ID))
+                .thenReturn(new UserPoint(USER_ID, 1000L, 1L))
+                .thenReturn(new UserPoint(USER_ID, 1100L, 2L));
+
+        try {
+            evicting.charge(USER_ID, 100L);
+
+            //when
+            // 반영 전에는 제거되지 않는다.
+            evicting.evictIdle();
+            Thread.sleep(100);
+            assertEquals(1, evicting.size());
+            evicting.writeThrough();
+            evicting.evictIdle();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (evicting.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            //then
+            assertEquals(0, evicting.size());
+            assertEquals(1200L, evicting.charge(USER_ID, 100L).point());
+            verify(userPointTable, times(2)).selectById(USER_ID);
+            verify(userPointTable).insertOrUpdate(USER_ID, 1100L);
+        } finally {
+            evicting.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
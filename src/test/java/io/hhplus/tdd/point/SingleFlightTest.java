@@ -0,0 +1,83 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @Test
+    public void 처리중인_조회가_실패하면_합쳐진_조회도_같은_예외를_받는다() throws Exception {
+        //given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Long> first = executor.submit(() -> singleFlight.execute(1L, () -> {
+            started.countDown();
+            await(release);
+            throw new PointException("USER_NOT_FOUND", "사용자를 찾을 수 없습니다.");
+        }));
+        started.await();
+
+        //when
+        Future<Long> joined = executor.submit(() -> singleFlight.execute(1L, () -> 0L));
+        while (singleFlight.coalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        //then
+        ExecutionException e = assertThrows(ExecutionException.class, joined::get);
+        assertEquals("USER_NOT_FOUND", ((PointException) e.getCause()).getCode());
+        assertThrows(ExecutionException.class, first::get);
+        executor.shutdown();
+    }
+
+    @Test
+    public void 쓰기_이후의_조회는_처리중인_조회에_합치지_않고_새로_읽는다() throws Exception {
+        //given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<Long> stale = executor.submit(() -> singleFlight.execute(1L, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return 1000L;
+        }));
+        started.await();
+
+        //when
+        singleFlight.forget(1L);
+        Long fresh = singleFlight.execute(1L, () -> {
+            calls.incrementAndGet();
+            return 2000L;
+        });
+        release.countDown();
+
+        //then
+        assertEquals(2000L, fresh);
+        assertEquals(1000L, stale.get());
+        assertEquals(2, calls.get());
+        assertEquals(0, singleFlight.coalescedCount());
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserLockRegistryTest {
+
+    private final UserLockRegistry registry = new UserLockRegistry(UserLockProperties.unbounded());
+
+    @Test
+    public void 사용이_끝난_락은_제거된다() throws Exception {
+        //given
+        for (long userId = 1; userId <= 1000; userId++) {
+            registry.lock(userId);
+            registry.unlock(userId);
+        }
+
+        //then
+        assertEquals(0, registry.liveLockCount());
+        assertEquals(1000, registry.acquiredCount());
+    }
+
+    @Test
+    public void 같은_사용자의_작업은_직렬화된다() throws Exception {
+        //given
+        int threads = 10;
+        int loop = 1000;
+        long[] counter = new long[1];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        //when
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    for (int j = 0; j < loop; j++) {
+                        registry.lock(1L);
+                        try {
+                            counter[0]++;
+                        } finally {
+                            registry.unlock(1L);
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        //then
+        assertEquals(threads * loop, counter[0]);
+        assertEquals(0, registry.liveLockCount());
+    }
+
+    @Test
+    public void 대기중인_스레드가_있으면_락이_유지되고_경합수가_증가한다() throws Exception {
+        //given
+        registry.lock(1L);
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            registry.lock(1L);
+            acquired.countDown();
+            registry.unlock(1L);
+        });
+
+        //when
+        waiter.start();
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        registry.unlock(1L);
+        acquired.await();
+        waiter.join();
+
+        //then
+        assertEquals(1, registry.contendedCount());
+        assertEquals(0, registry.liveLockCount());
+    }
+
+    @Test
+    public void 기다리는_요청이_최대치를_넘으면_기다리지_않고_거절한다() throws Exception {
+        //given
+        UserLockRegistry bounded = new UserLockRegistry(new UserLockProperties(false, Duration.ZERO, 1));
+        bounded.lock(1L);
+        Thread waiter = new Thread(() -> {
+            bounded.lock(1L);
+            bounded.unlock(1L);
+        });
+        waiter.start();
+        while (bounded.queueDepth(1L) == 0) {
+            Thread.onSpinWait();
+        }
+
+        //when
+        PointException e = assertThrows(PointException.class, () -> bounded.lock(1L));
+
+        //then
+        assertEquals("LOCK_QUEUE_FULL", e.getCode());
+        assertEquals(1, bounded.queueFullCount());
+        assertEquals(1, bounded.maxQueueDepth());
+        bounded.unlock(1L);
+        waiter.join();
+        assertEquals(0, bounded.liveLockCount());
+    }
+
+    @Test
+    public void 제한_시간_안에_락을_잡지_못하면_거절하고_락은_정리된다() throws Exception {
+        //given
+        UserLockRegistry timed = new UserLockRegistry(new UserLockProperties(true, Duration.ofMillis(50), 0));
+        timed.lock(1L);
+        PointException[] rejected = new PointException[1];
+        Thread waiter = new Thread(() -> rejected[0] = assertThrows(PointException.class, () -> timed.lock(1L)));
+
+        //when
+        waiter.start();
+        waiter.join();
+        timed.unlock(1L);
+
+        //then
+        assertEquals("LOCK_TIMEOUT", rejected[0].getCode());
+        assertEquals(1, timed.timeoutCount());
+        assertEquals(0, timed.liveLockCount());
+    }
+}
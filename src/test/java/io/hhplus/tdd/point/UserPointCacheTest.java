@@ -0,0 +1,100 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPointCacheTest {
+
+    private UserPointCache cache(int maxSize, Duration ttl) {
+        return new UserPointCache(new UserPointCacheProperties(true, maxSize, ttl, 1));
+    }
+
+    @Test
+    public void 두번째_조회부터는_캐시에서_반환한다() throws Exception {
+        //given
+        UserPointCache cache = cache(100, Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new UserPoint(id, 1000L, 1L);
+        });
+        UserPoint cached = cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new UserPoint(id, 2000L, 2L);
+        });
+
+        //then
+        assertEquals(1000L, cached.point());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void 쓰기_경로에서_갱신된_값이_조회된다() throws Exception {
+        //given
+        UserPointCache cache = cache(100, Duration.ofSeconds(5));
+        cache.get(1L, id -> new UserPoint(id, 1000L, 1L));
+
+        //when
+        cache.put(new UserPoint(1L, 3000L, 2L));
+
+        //then
+        assertEquals(3000L, cache.get(1L, id -> new UserPoint(id, 0L, 0L)).point());
+    }
+
+    @Test
+    public void 만료된_값은_다시_읽는다() throws Exception {
+        //given
+        UserPointCache cache = cache(100, Duration.ZERO);
+        cache.get(1L, id -> new UserPoint(id, 1000L, 1L));
+
+        //when
+        UserPoint reloaded = cache.get(1L, id -> new UserPoint(id, 2000L, 2L));
+
+        //then
+        assertEquals(2000L, reloaded.point());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void 최대크기를_넘으면_가장_오래_사용되지_않은_사용자부터_제거된다() throws Exception {
+        //given
+        UserPointCache cache = cache(2, Duration.ofSeconds(5));
+        cache.put(new UserPoint(1L, 100L, 1L));
+        cache.put(new UserPoint(2L, 200L, 1L));
+        cache.get(1L, id -> UserPoint.empty(id)); // 1번 사용자를 최근 사용으로
+
+        //when
+        cache.put(new UserPoint(3L, 300L, 1L));
+
+        //then
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(100L, cache.get(1L, id -> UserPoint.empty(id)).point());
+        assertEquals(0L, cache.get(2L, id -> UserPoint.empty(id)).point());
+    }
+
+    @Test
+    public void 읽는_도중_쓰기가_있으면_읽은_값은_캐시하지_않는다() throws Exception {
+        //given
+        UserPointCache cache = cache(100, Duration.ofSeconds(5));
+
+        //when
+        UserPoint stale = cache.get(1L, id -> {
+            // 테이블을 읽는 사이 다른 스레드가 쓰기를 완료한 상황
+            cache.put(new UserPoint(id, 5000L, 2L));
+            return new UserPoint(id, 1000L, 1L);
+        });
+
+        //then
+        assertEquals(1000L, stale.point());
+        assertEquals(5000L, cache.get(1L, id -> UserPoint.empty(id)).point());
+    }
+}